@@ -0,0 +1,48 @@
+package com.knut4.backend.common.config;
+
+import com.knut4.backend.common.resilience.DegradationController;
+import com.knut4.backend.domain.llm.LlmScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Adaptive load shedding for the recommendation pipeline: a {@link DegradationController} fed by the LLM
+ * scheduler's queue depth and expected latency. Without a scheduler both signals read zero (always NORMAL).
+ */
+@Configuration
+public class DegradationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.degradation.enabled", havingValue = "true", matchIfMissing = true)
+    public DegradationController degradationController(
+            ObjectProvider<LlmScheduler> scheduler,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.degradation.evaluate-interval-ms:1000}") long evaluateIntervalMs,
+            @Value("${app.degradation.cooldown-ms:30000}") long cooldownMs,
+            @Value("${app.degradation.reduced.enter-queue:10}") int reducedEnterQueue,
+            @Value("${app.degradation.reduced.exit-queue:3}") int reducedExitQueue,
+            @Value("${app.degradation.reduced.enter-latency-ms:20000}") long reducedEnterLatencyMs,
+            @Value("${app.degradation.reduced.exit-latency-ms:10000}") long reducedExitLatencyMs,
+            @Value("${app.degradation.minimal.enter-queue:30}") int minimalEnterQueue,
+            @Value("${app.degradation.minimal.exit-queue:10}") int minimalExitQueue,
+            @Value("${app.degradation.minimal.enter-latency-ms:45000}") long minimalEnterLatencyMs,
+            @Value("${app.degradation.minimal.exit-latency-ms:20000}") long minimalExitLatencyMs) {
+        LlmScheduler slots = scheduler.getIfAvailable();
+        return new DegradationController(
+                () -> slots == null ? 0 : slots.queueSize(),
+                () -> slots == null ? Duration.ZERO : slots.expectedLatency(),
+                new DegradationController.Settings(
+                        new DegradationController.Thresholds(reducedEnterQueue, reducedExitQueue,
+                                Duration.ofMillis(reducedEnterLatencyMs), Duration.ofMillis(reducedExitLatencyMs)),
+                        new DegradationController.Thresholds(minimalEnterQueue, minimalExitQueue,
+                                Duration.ofMillis(minimalEnterLatencyMs), Duration.ofMillis(minimalExitLatencyMs)),
+                        Duration.ofMillis(evaluateIntervalMs), Duration.ofMillis(cooldownMs)),
+                meterRegistry.getIfAvailable());
+    }
+}
@@ -0,0 +1,77 @@
+package com.knut4.backend.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used for background work of the recommendation pipeline (cache refresh, parallel blocking calls).
+ * Bounded on both threads and queue so a burst of requests cannot create unbounded outbound work;
+ * rejected tasks are treated as "no result" by callers.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} (Tomcat request handling then also runs on virtual threads) the
+ * pool is replaced by a {@link VirtualThreadExecutor} with the same in-flight bound ({@code max-size + queue-capacity}).
+ * <p>
+ * SSE recommendation pipelines get their own {@code streamExecutor}: each one blocks a thread for the whole request
+ * while it waits on the work it submits to {@code recommendationExecutor}, so sharing that pool would let a burst of
+ * streams occupy the threads their own lookups need.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(name = "recommendationExecutor", destroyMethod = "shutdown")
+    public ExecutorService recommendationExecutor(
+            @Value("${app.recommendation.executor.core-size:8}") int coreSize,
+            @Value("${app.recommendation.executor.max-size:32}") int maxSize,
+            @Value("${app.recommendation.executor.queue-capacity:200}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return new VirtualThreadExecutor("recommend-v", Math.max(coreSize, maxSize) + queueCapacity);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                coreSize,
+                Math.max(coreSize, maxSize),
+                30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                daemonThreads("recommend-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** One thread per open SSE pipeline, no queue: beyond {@code max-concurrent} the stream is answered "busy". */
+    @Bean(name = "streamExecutor", destroyMethod = "shutdown")
+    public ExecutorService streamExecutor(
+            @Value("${app.recommendation.stream.max-concurrent:64}") int maxConcurrent,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int max = Math.max(1, maxConcurrent);
+        if (virtualThreads) {
+            return new VirtualThreadExecutor("stream-v", max);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                max, max,
+                30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                daemonThreads("stream-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
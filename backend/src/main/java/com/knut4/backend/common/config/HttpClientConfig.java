@@ -0,0 +1,95 @@
+package com.knut4.backend.common.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shared outbound HTTP layer: one named {@link WebClient} per upstream, each backed by its own Reactor Netty
+ * connection pool (keep-alive, bounded pending acquires, idle/lifetime eviction) with gzip, connect/response
+ * timeouts and a capped in-memory buffer.
+ * <p>
+ * Metrics: clients are built from Boot's {@link WebClient.Builder}, so per-upstream latency is recorded as
+ * {@code http.client.requests} (tag {@code client.name}); pool saturation is exported by Reactor Netty as
+ * {@code reactor.netty.connection.provider.*} tagged with the pool name (naver / kakao / llm).
+ */
+@Configuration
+public class HttpClientConfig implements DisposableBean {
+
+    private final List<ConnectionProvider> providers = new CopyOnWriteArrayList<>();
+
+    @Value("${app.http.pool.max-connections:50}")
+    private int maxConnections;
+    @Value("${app.http.pool.pending-acquire-max-count:200}")
+    private int pendingAcquireMaxCount;
+    @Value("${app.http.pool.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+    @Value("${app.http.pool.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+    @Value("${app.http.pool.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+    @Value("${app.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+    @Value("${app.http.max-in-memory-size:1048576}")
+    private int maxInMemorySize;
+
+    @Bean
+    public WebClient naverWebClient(WebClient.Builder builder,
+                                    @Value("${naver.map.base-url:https://openapi.naver.com/v1/search/local.json}") String baseUrl,
+                                    @Value("${app.http.naver.read-timeout-ms:5000}") long readTimeoutMs) {
+        return build(builder, "naver", baseUrl, Duration.ofMillis(readTimeoutMs));
+    }
+
+    @Bean
+    public WebClient kakaoWebClient(WebClient.Builder builder,
+                                    @Value("${kakao.map.base-url:https://dapi.kakao.com/v2/local/search/keyword.json}") String baseUrl,
+                                    @Value("${app.http.kakao.read-timeout-ms:5000}") long readTimeoutMs) {
+        return build(builder, "kakao", baseUrl, Duration.ofMillis(readTimeoutMs));
+    }
+
+    @Bean
+    public WebClient llmWebClient(WebClient.Builder builder,
+                                  @Value("${llm.openai.base-url:http://localhost:4891/v1}") String baseUrl,
+                                  @Value("${app.http.llm.read-timeout-ms:60000}") long readTimeoutMs) {
+        // generation is slow; per-call deadlines are applied by the LLM client itself
+        return build(builder, "llm", baseUrl, Duration.ofMillis(readTimeoutMs));
+    }
+
+    private WebClient build(WebClient.Builder builder, String name, String baseUrl, Duration readTimeout) {
+        ConnectionProvider pool = ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+        providers.add(pool);
+        HttpClient httpClient = HttpClient.create(pool)
+                .keepAlive(true)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(readTimeout);
+        return builder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        providers.forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,139 @@
+package com.knut4.backend.common.config;
+
+import com.knut4.backend.domain.llm.CachingLlmClient;
+import com.knut4.backend.domain.llm.HedgingLlmClient;
+import com.knut4.backend.domain.llm.LlmClient;
+import com.knut4.backend.domain.llm.LlmEndpointPool;
+import com.knut4.backend.domain.llm.LlmPriority;
+import com.knut4.backend.domain.llm.LlmScheduler;
+import com.knut4.backend.domain.llm.RuleBasedLlmClient;
+import com.knut4.backend.domain.llm.ScheduledLlmClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Assembles the {@link LlmClient} used by the application: the backend selected by {@code app.llm.mode}
+ * (qualified {@code llmBackend}) wrapped by decorators. The composed bean is {@code @Primary}:
+ * <pre>
+ * [hedge] -> result cache -> scheduler (slots, priority, per-user fairness, deadlines) -> backend (stub / http / rules)
+ * </pre>
+ * Cache hits never queue for a generation slot. Calls the scheduler does not admit, and (with
+ * {@code app.llm.rules.hedge-after-ms}) generations slower than that, are answered by the in-process
+ * {@link RuleBasedLlmClient} instead of placeholders. Without a backend bean the LLM is disabled and callers get null
+ * (see RecommendationService).
+ */
+@Configuration
+public class LlmClientConfig {
+
+    @Value("${app.llm.scheduler.max-concurrent:2}")
+    private int schedulerMaxConcurrent;
+    @Value("${app.llm.scheduler.max-queue:50}")
+    private int schedulerMaxQueue;
+    @Value("${app.llm.scheduler.latency-stale-after-ms:30000}")
+    private long schedulerLatencyStaleAfterMs;
+    @Value("${app.llm.scheduler.deadline-ms.interactive:20000}")
+    private long interactiveDeadlineMs;
+    @Value("${app.llm.scheduler.deadline-ms.retry:30000}")
+    private long retryDeadlineMs;
+    @Value("${app.llm.scheduler.deadline-ms.background:120000}")
+    private long backgroundDeadlineMs;
+
+    @Value("${app.llm.rules.fallback.enabled:true}")
+    private boolean rulesFallbackEnabled;
+    @Value("${app.llm.rules.hedge-after-ms:0}")
+    private long rulesHedgeAfterMs;
+
+    @Value("${app.llm.cache.enabled:true}")
+    private boolean cacheEnabled;
+    @Value("${app.llm.cache.max-entries:2000}")
+    private long cacheMaxEntries;
+    @Value("${app.llm.cache.ttl-minutes:30}")
+    private long cacheTtlMinutes;
+    @Value("${app.llm.cache.budget-bucket-won:5000}")
+    private int budgetBucketWon;
+    @Value("${app.llm.cache.grid-cell-meters:500}")
+    private int gridCellMeters;
+    @Value("${app.llm.cache.disk.enabled:false}")
+    private boolean diskEnabled;
+    @Value("${app.llm.cache.disk.dir:${java.io.tmpdir}/knut4-llm-cache}")
+    private String diskDir;
+
+    /**
+     * Inference servers for the http backend: {@code llm.openai.base-urls} (comma separated) or the single
+     * {@code llm.openai.base-url}. All share the pooled "llm" WebClient connector.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.llm.mode", havingValue = "http")
+    public LlmEndpointPool llmEndpointPool(@Qualifier("llmWebClient") WebClient template,
+                                           @Value("${llm.openai.base-urls:}") String baseUrls,
+                                           @Value("${llm.openai.base-url:http://localhost:4891/v1}") String baseUrl,
+                                           @Value("${app.llm.pool.probe-interval-ms:10000}") long probeIntervalMs,
+                                           @Value("${app.llm.pool.probe-timeout-ms:2000}") long probeTimeoutMs,
+                                           @Value("${app.llm.pool.failure-threshold:3}") int failureThreshold,
+                                           @Value("${app.llm.pool.hedge.enabled:true}") boolean hedge,
+                                           @Value("${app.llm.pool.hedge.percentile:0.95}") double hedgePercentile,
+                                           @Value("${app.llm.pool.hedge.min-delay-ms:500}") long hedgeMinDelayMs,
+                                           @Value("${app.llm.pool.hedge.max-delay-ms:5000}") long hedgeMaxDelayMs,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        List<String> urls = Arrays.stream(baseUrls.split(","))
+                .map(String::trim)
+                .filter(u -> !u.isEmpty())
+                .toList();
+        if (urls.isEmpty()) urls = List.of(baseUrl);
+        return new LlmEndpointPool(template, urls, new LlmEndpointPool.Settings(
+                Duration.ofMillis(probeIntervalMs), Duration.ofMillis(probeTimeoutMs), failureThreshold,
+                hedge, hedgePercentile, Duration.ofMillis(hedgeMinDelayMs), Duration.ofMillis(hedgeMaxDelayMs)),
+                meterRegistry.getIfAvailable());
+    }
+
+    /** Admission control for generations; also the load signal of the DegradationController. */
+    @Bean
+    @ConditionalOnProperty(name = "app.llm.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+    public LlmScheduler llmScheduler(ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<LlmPriority, Duration> deadlines = new EnumMap<>(LlmPriority.class);
+        deadlines.put(LlmPriority.INTERACTIVE, Duration.ofMillis(interactiveDeadlineMs));
+        deadlines.put(LlmPriority.RETRY, Duration.ofMillis(retryDeadlineMs));
+        deadlines.put(LlmPriority.BACKGROUND, Duration.ofMillis(backgroundDeadlineMs));
+        return new LlmScheduler(schedulerMaxConcurrent, schedulerMaxQueue, deadlines,
+                Duration.ofMillis(schedulerLatencyStaleAfterMs), meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @Primary
+    public LlmClient llmClient(@Qualifier("llmBackend") ObjectProvider<LlmClient> backend,
+                               ObjectProvider<LlmScheduler> scheduler,
+                               ObjectProvider<MeterRegistry> meterRegistry,
+                               @Qualifier("recommendationExecutor") Executor executor) {
+        LlmClient client = backend.getIfAvailable();
+        if (client == null) return null;
+        LlmClient fastPath = client instanceof RuleBasedLlmClient || !rulesFallbackEnabled ? null : new RuleBasedLlmClient();
+        LlmScheduler slots = scheduler.getIfAvailable();
+        if (slots != null) {
+            client = new ScheduledLlmClient(client, slots, fastPath);
+        }
+        if (cacheEnabled) {
+            client = new CachingLlmClient(client, cacheMaxEntries, Duration.ofMinutes(cacheTtlMinutes),
+                    budgetBucketWon, gridCellMeters, diskEnabled ? Path.of(diskDir) : null, executor,
+                    meterRegistry.getIfAvailable());
+        }
+        if (fastPath != null && rulesHedgeAfterMs > 0) {
+            client = new HedgingLlmClient(client, fastPath, Duration.ofMillis(rulesHedgeAfterMs), executor);
+        }
+        return client;
+    }
+}
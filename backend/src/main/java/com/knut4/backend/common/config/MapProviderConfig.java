@@ -0,0 +1,121 @@
+package com.knut4.backend.common.config;
+
+import com.knut4.backend.common.resilience.ResilienceRegistry;
+import com.knut4.backend.domain.place.CachingMapProvider;
+import com.knut4.backend.domain.place.HedgingMapProvider;
+import com.knut4.backend.domain.place.KakaoMapProvider;
+import com.knut4.backend.domain.place.MapProvider;
+import com.knut4.backend.domain.place.NaverMapProvider;
+import com.knut4.backend.domain.place.RateLimitedMapProvider;
+import com.knut4.backend.domain.place.ResilientMapProvider;
+import com.knut4.backend.domain.place.SingleFlightMapProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Assembles the {@link MapProvider} used by the application: the raw upstream provider wrapped by decorators.
+ * The composed bean is {@code @Primary} so injection points asking for a MapProvider get the decorated chain:
+ * <pre>
+ * single-flight -> cache -> [hedging composite (Naver + Kakao)] -> circuit breaker/bulkhead -> rate limiter -> Naver
+ * </pre>
+ * Each upstream gets its own breaker and bulkhead (Kakao: circuit breaker/bulkhead -> Kakao), so one failing
+ * provider short-circuits to an empty answer without affecting the other.
+ */
+@Configuration
+public class MapProviderConfig implements DisposableBean {
+
+    private RateLimitedMapProvider naverLimiter;
+
+    @Value("${app.map.grid-cell-meters:250}")
+    private int gridCellMeters;
+
+    @Value("${app.map.singleflight.enabled:true}")
+    private boolean singleFlightEnabled;
+
+    @Value("${app.map.cache.enabled:true}")
+    private boolean cacheEnabled;
+    @Value("${app.map.cache.max-entries:5000}")
+    private long cacheMaxEntries;
+    @Value("${app.map.cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+    @Value("${app.map.cache.refresh-after-seconds:300}")
+    private long cacheRefreshAfterSeconds;
+
+    @Value("${app.map.naver.rate-limit.enabled:true}")
+    private boolean naverRateLimitEnabled;
+    @Value("${app.map.naver.rate-limit.permits-per-second:10}")
+    private double naverPermitsPerSecond;
+    @Value("${app.map.naver.rate-limit.burst:10}")
+    private int naverBurst;
+    @Value("${app.map.naver.rate-limit.daily-quota:25000}")
+    private long naverDailyQuota;
+    @Value("${app.map.naver.rate-limit.max-queue:100}")
+    private int naverMaxQueue;
+    @Value("${app.map.naver.rate-limit.max-wait-ms:1000}")
+    private long naverMaxWaitMs;
+
+    @Value("${app.resilience.naver.call-timeout-ms:3000}")
+    private long naverCallTimeoutMs;
+    @Value("${app.resilience.kakao.call-timeout-ms:3000}")
+    private long kakaoCallTimeoutMs;
+
+    @Value("${app.map.composite.merge:false}")
+    private boolean compositeMerge;
+    @Value("${app.map.composite.hedge-percentile:0.95}")
+    private double hedgePercentile;
+    @Value("${app.map.composite.hedge-min-delay-ms:100}")
+    private long hedgeMinDelayMs;
+    @Value("${app.map.composite.hedge-max-delay-ms:1500}")
+    private long hedgeMaxDelayMs;
+
+    @Bean
+    @Primary
+    public MapProvider mapProvider(NaverMapProvider naver,
+                                   ObjectProvider<KakaoMapProvider> kakao,
+                                   ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                   ResilienceRegistry resilience,
+                                   @Qualifier("recommendationExecutor") Executor executor) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        MapProvider provider = naver;
+        if (naverRateLimitEnabled) {
+            // limits are configured in upstream API calls; one search costs fetchVariants() calls
+            int callsPerSearch = naver.fetchVariants();
+            naverLimiter = new RateLimitedMapProvider(naver, "naver", naverPermitsPerSecond / callsPerSearch,
+                    Math.max(1, naverBurst / callsPerSearch), naverDailyQuota / callsPerSearch, naverMaxQueue,
+                    Duration.ofMillis(naverMaxWaitMs), meterRegistry);
+            provider = naverLimiter;
+        }
+        // breaker sits above the limiter: while open no rate limit permits / daily quota are spent
+        provider = new ResilientMapProvider(provider, "naver", resilience, Duration.ofMillis(naverCallTimeoutMs));
+        KakaoMapProvider secondary = kakao.getIfAvailable();
+        if (secondary != null) { // app.map.composite.enabled=true
+            MapProvider kakaoIsolated = new ResilientMapProvider(secondary, "kakao", resilience,
+                    Duration.ofMillis(kakaoCallTimeoutMs));
+            provider = new HedgingMapProvider(provider, kakaoIsolated, compositeMerge, hedgePercentile,
+                    Duration.ofMillis(hedgeMinDelayMs), Duration.ofMillis(hedgeMaxDelayMs));
+        }
+        if (cacheEnabled) {
+            provider = new CachingMapProvider(provider, gridCellMeters, cacheMaxEntries,
+                    Duration.ofSeconds(cacheTtlSeconds), Duration.ofSeconds(cacheRefreshAfterSeconds),
+                    executor, meterRegistry);
+        }
+        if (singleFlightEnabled) {
+            provider = new SingleFlightMapProvider(provider, gridCellMeters, meterRegistry);
+        }
+        return provider;
+    }
+
+    @Override
+    public void destroy() {
+        if (naverLimiter != null) naverLimiter.shutdown();
+    }
+}
@@ -1,5 +1,6 @@
 package com.knut4.backend.common.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -23,6 +24,8 @@ public class SecurityConfig {
         .csrf(csrf -> csrf.disable())
         .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(auth -> auth
+            // async re-dispatch of streamed responses (SSE): the original request was already authorized
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/actuator/health", "/api/public/**").permitAll()
             .anyRequest().authenticated()
         )
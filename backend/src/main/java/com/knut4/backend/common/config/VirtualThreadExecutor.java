@@ -0,0 +1,59 @@
+package com.knut4.backend.common.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One virtual thread per task, at most {@code maxInFlight} tasks at a time. Virtual threads are cheap, but the
+ * outbound work they start (Naver, LLM, JDBC) is not, so the bound of the platform pool (threads + queue) is kept:
+ * beyond it {@link #execute} rejects, exactly like the pool's {@code AbortPolicy}.
+ */
+class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    VirtualThreadExecutor(String namePrefix, int maxInFlight) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+        this.permits = new Semaphore(Math.max(1, maxInFlight));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) throw new RejectedExecutionException("virtual-thread executor at capacity");
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() { delegate.shutdown(); }
+
+    @Override
+    public List<Runnable> shutdownNow() { return delegate.shutdownNow(); }
+
+    @Override
+    public boolean isShutdown() { return delegate.isShutdown(); }
+
+    @Override
+    public boolean isTerminated() { return delegate.isTerminated(); }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,46 @@
+package com.knut4.backend.common.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/** Semaphore bulkhead: caps concurrent calls to one upstream so it cannot absorb every request thread. */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public String name() { return name; }
+
+    /** Non-blocking acquire (reactive callers). */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /** Blocking acquire waiting at most the configured max wait (blocking callers). */
+    public boolean tryAcquireWaiting() {
+        try {
+            return maxWait.isZero() ? permits.tryAcquire() : permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int inUse() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
@@ -0,0 +1,149 @@
+package com.knut4.backend.common.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker.
+ * CLOSED: calls pass; the last {@code windowSize} outcomes are kept and once {@code minimumCalls} are recorded the
+ * breaker opens when the failure rate or the slow-call rate crosses its threshold.
+ * OPEN: calls are rejected (callers fail fast into their fallback) until {@code openDuration} has passed.
+ * HALF_OPEN: up to {@code halfOpenCalls} probe calls are let through; all succeeding closes the breaker,
+ * any failure / slow call opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Settings(int windowSize,
+                           int minimumCalls,
+                           double failureRateThreshold,
+                           Duration slowCallThreshold,
+                           double slowCallRateThreshold,
+                           Duration openDuration,
+                           int halfOpenCalls) {}
+
+    private final String name;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final byte[] outcomes; // 0 = ok, 1 = failure, 2 = slow (success but slow)
+    private int next;
+    private int recorded;
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, Settings settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, Settings settings, LongSupplier nanoClock) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.outcomes = new byte[Math.max(1, settings.windowSize())];
+    }
+
+    public String name() { return name; }
+
+    public State state() {
+        lock.lock();
+        try {
+            maybeHalfOpen();
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return true if the call may proceed; the caller must then report {@link #onSuccess} / {@link #onError} or {@link #onIgnored}. */
+    public boolean tryAcquirePermission() {
+        lock.lock();
+        try {
+            maybeHalfOpen();
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (halfOpenPermits <= 0) yield false;
+                    halfOpenPermits--;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess(Duration elapsed) {
+        record(elapsed.compareTo(settings.slowCallThreshold()) > 0 ? (byte) 2 : (byte) 0);
+    }
+
+    public void onError(Duration elapsed) {
+        record((byte) 1);
+    }
+
+    /** Permission was acquired but the call was cancelled / its outcome does not say anything about the upstream. */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) halfOpenPermits++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(byte outcome) {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                if (outcome != 0) {
+                    open();
+                } else if (++halfOpenSuccesses >= settings.halfOpenCalls()) {
+                    close();
+                }
+                return;
+            }
+            if (state != State.CLOSED) return;
+            outcomes[next] = outcome;
+            next = (next + 1) % outcomes.length;
+            if (recorded < outcomes.length) recorded++;
+            if (recorded < settings.minimumCalls()) return;
+            int failures = 0, slow = 0;
+            for (int i = 0; i < recorded; i++) {
+                if (outcomes[i] == 1) failures++;
+                else if (outcomes[i] == 2) slow++;
+            }
+            double failureRate = failures * 100.0 / recorded;
+            double slowRate = slow * 100.0 / recorded;
+            if (failureRate >= settings.failureRateThreshold() || slowRate >= settings.slowCallRateThreshold()) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void maybeHalfOpen() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openUntil >= 0) {
+            state = State.HALF_OPEN;
+            halfOpenPermits = settings.halfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = nanoClock.getAsLong() + settings.openDuration().toNanos();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+    }
+}
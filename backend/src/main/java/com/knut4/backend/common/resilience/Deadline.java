@@ -0,0 +1,63 @@
+package com.knut4.backend.common.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Absolute point in time by which a request must be answered. Stages derive their timeouts from it
+ * ({@link #cap}) instead of using fixed values, so the sum of all stages cannot exceed the request budget.
+ */
+public final class Deadline {
+
+    private final Instant at;
+    private final Clock clock;
+
+    private Deadline(Instant at, Clock clock) {
+        this.at = at;
+        this.clock = clock;
+    }
+
+    public static Deadline after(Duration budget) {
+        return after(budget, Clock.systemUTC());
+    }
+
+    static Deadline after(Duration budget, Clock clock) {
+        return new Deadline(clock.instant().plus(budget), clock);
+    }
+
+    public static Deadline at(Instant at) {
+        return new Deadline(at, Clock.systemUTC());
+    }
+
+    /** Time left; zero once expired (never negative). */
+    public Duration remaining() {
+        Duration left = Duration.between(clock.instant(), at);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+
+    public boolean isExpired() {
+        return !clock.instant().isBefore(at);
+    }
+
+    /** {@code timeout}, shortened to the time left. */
+    public Duration cap(Duration timeout) {
+        Duration left = remaining();
+        return timeout == null || left.compareTo(timeout) < 0 ? left : timeout;
+    }
+
+    /** A deadline {@code reserve} earlier, leaving that much time to the stages that follow. */
+    public Deadline minus(Duration reserve) {
+        return new Deadline(at.minus(reserve), clock);
+    }
+
+    /** The earlier of this and {@code other} (null = no other bound). */
+    public Deadline min(Instant other) {
+        return other == null || !other.isBefore(at) ? this : new Deadline(other, clock);
+    }
+
+    public Instant toInstant() { return at; }
+
+    @Override
+    public String toString() { return "Deadline[in " + remaining().toMillis() + " ms]"; }
+}
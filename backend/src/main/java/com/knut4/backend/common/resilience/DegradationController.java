@@ -0,0 +1,131 @@
+package com.knut4.backend.common.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Picks the {@link DegradationTier} for new requests from two pressure signals: queue depth and expected latency
+ * of the LLM. Escalation is immediate as soon as a tier's enter threshold is crossed; stepping back down happens one
+ * tier at a time, only after both signals stayed below the current tier's (lower) exit thresholds for
+ * {@code cooldown}, so the tier does not flap around a threshold.
+ * <p>
+ * Signals are sampled lazily by {@link #tier()} at most once per {@code evaluateInterval}.
+ * Metrics: {@code recommend.degradation.tier} (gauge, tier ordinal), {@code recommend.degradation.transitions{from,to}}.
+ */
+public class DegradationController {
+
+    private static final Logger log = LoggerFactory.getLogger(DegradationController.class);
+
+    /** Enter when {@code queue >= enterQueue} or {@code latency >= enterLatency}; leave when both are at or below exit. Zero disables a signal. */
+    public record Thresholds(int enterQueue, int exitQueue, Duration enterLatency, Duration exitLatency) {}
+
+    public record Settings(Thresholds reduced, Thresholds minimal, Duration evaluateInterval, Duration cooldown) {}
+
+    private final IntSupplier queueDepth;
+    private final Supplier<Duration> latency;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile DegradationTier tier = DegradationTier.NORMAL;
+    private volatile long lastEvaluation;
+    private long calmSince = -1; // guarded by lock
+
+    public DegradationController(IntSupplier queueDepth, Supplier<Duration> latency, Settings settings,
+                                 MeterRegistry meterRegistry) {
+        this(queueDepth, latency, settings, meterRegistry, System::nanoTime);
+    }
+
+    DegradationController(IntSupplier queueDepth, Supplier<Duration> latency, Settings settings,
+                          MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.queueDepth = queueDepth;
+        this.latency = latency;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.lastEvaluation = nanoClock.getAsLong();
+        if (meterRegistry != null) {
+            Gauge.builder("recommend.degradation.tier", this, c -> c.tier.ordinal())
+                    .description("Current recommendation service level (0 = normal, 1 = reduced, 2 = minimal)")
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Tier for a request starting now. */
+    public DegradationTier tier() {
+        long now = nanoClock.getAsLong();
+        if (now - lastEvaluation >= settings.evaluateInterval().toNanos() && lock.tryLock()) {
+            try {
+                lastEvaluation = now;
+                evaluate(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return tier;
+    }
+
+    /** Must hold lock. */
+    private void evaluate(long now) {
+        int queue = queueDepth.getAsInt();
+        Duration expected = latency.get();
+        DegradationTier target = DegradationTier.NORMAL;
+        if (crossed(settings.minimal(), queue, expected)) target = DegradationTier.MINIMAL;
+        else if (crossed(settings.reduced(), queue, expected)) target = DegradationTier.REDUCED;
+
+        DegradationTier current = tier;
+        if (target.compareTo(current) > 0) {
+            calmSince = -1;
+            transition(current, target, queue, expected);
+            return;
+        }
+        if (current == DegradationTier.NORMAL) return;
+        Thresholds exit = current == DegradationTier.MINIMAL ? settings.minimal() : settings.reduced();
+        if (!calm(exit, queue, expected)) {
+            calmSince = -1;
+            return;
+        }
+        if (calmSince < 0) {
+            calmSince = now;
+        } else if (now - calmSince >= settings.cooldown().toNanos()) {
+            calmSince = now; // the next step down needs its own quiet period
+            transition(current, DegradationTier.values()[current.ordinal() - 1], queue, expected);
+        }
+    }
+
+    private static boolean crossed(Thresholds t, int queue, Duration expected) {
+        return (t.enterQueue() > 0 && queue >= t.enterQueue())
+                || (isSet(t.enterLatency()) && expected.compareTo(t.enterLatency()) >= 0);
+    }
+
+    private static boolean calm(Thresholds t, int queue, Duration expected) {
+        return (t.enterQueue() <= 0 || queue <= t.exitQueue())
+                && (!isSet(t.enterLatency()) || expected.compareTo(t.exitLatency()) <= 0);
+    }
+
+    private static boolean isSet(Duration d) {
+        return d != null && !d.isZero() && !d.isNegative();
+    }
+
+    private void transition(DegradationTier from, DegradationTier to, int queue, Duration expected) {
+        tier = to;
+        log.warn("recommendation service level {} -> {} (llm queue={}, expected latency={} ms)",
+                from, to, queue, expected.toMillis());
+        if (meterRegistry != null) {
+            Counter.builder("recommend.degradation.transitions")
+                    .description("Changes of the recommendation service level")
+                    .tag("from", from.name()).tag("to", to.name())
+                    .register(meterRegistry).increment();
+        }
+    }
+}
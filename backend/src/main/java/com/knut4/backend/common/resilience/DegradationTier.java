@@ -0,0 +1,11 @@
+package com.knut4.backend.common.resilience;
+
+/** Service levels of the recommendation pipeline, cheapest last (see {@link DegradationController}). */
+public enum DegradationTier {
+    /** Full pipeline: LLM generation, full place sampling, all menu cards. */
+    NORMAL,
+    /** LLM answers only from the result cache, the rule engine for everything else. */
+    REDUCED,
+    /** Rule engine only, no place sampling, fewer menu cards (fewer place lookups). */
+    MINIMAL
+}
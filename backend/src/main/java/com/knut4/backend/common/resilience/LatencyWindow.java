@@ -0,0 +1,67 @@
+package com.knut4.backend.common.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size ring buffer of recent call latencies with percentile lookup.
+ * Used to derive adaptive hedge delays ("fire the backup once the primary is slower than its p95").
+ */
+public class LatencyWindow {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    public void record(Duration latency) {
+        lock.lock();
+        try {
+            samples[next] = latency.toNanos();
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Forget all samples, e.g. once they are too old to describe the callee. */
+    public void clear() {
+        lock.lock();
+        try {
+            next = 0;
+            count = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int count() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Percentile (0..1) of recorded samples, or {@code fallback} while fewer than {@code minSamples} are recorded. */
+    public Duration percentile(double p, int minSamples, Duration fallback) {
+        long[] copy;
+        lock.lock();
+        try {
+            if (count < Math.max(1, minSamples)) return fallback;
+            copy = Arrays.copyOf(samples, count);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(copy);
+        int idx = (int) Math.ceil(Math.min(1.0, Math.max(0.0, p)) * copy.length) - 1;
+        return Duration.ofNanos(copy[Math.max(0, idx)]);
+    }
+}
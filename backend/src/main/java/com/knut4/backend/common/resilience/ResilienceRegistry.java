@@ -0,0 +1,99 @@
+package com.knut4.backend.common.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named {@link CircuitBreaker} / {@link Bulkhead} instances, one per upstream ("naver", "kakao", "llm").
+ * Settings are read from {@code app.resilience.<name>.*} (see application.yml) with the defaults below.
+ * Metrics: {@code resilience.circuit.state{name}} (0 closed, 1 open, 2 half-open),
+ * {@code resilience.bulkhead.in-use{name}} and {@code resilience.rejected{name, reason=circuit_open|bulkhead_full}}.
+ */
+@Component
+public class ResilienceRegistry {
+
+    private final Environment env;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ResilienceRegistry(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(env, meterRegistry.getIfAvailable());
+    }
+
+    ResilienceRegistry(Environment env, MeterRegistry meterRegistry) {
+        this.env = env;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Registry with default settings and no metrics (tests / standalone clients). */
+    public static ResilienceRegistry standalone() {
+        return new ResilienceRegistry(new StandardEnvironment(), (MeterRegistry) null);
+    }
+
+    public CircuitBreaker circuitBreaker(String name) {
+        return breakers.computeIfAbsent(name, n -> {
+            CircuitBreaker breaker = new CircuitBreaker(n, new CircuitBreaker.Settings(
+                    intProp(n, "window-size", 20),
+                    intProp(n, "minimum-calls", 10),
+                    doubleProp(n, "failure-rate-threshold", 50),
+                    Duration.ofMillis(longProp(n, "slow-call-threshold-ms", 3000)),
+                    doubleProp(n, "slow-call-rate-threshold", 80),
+                    Duration.ofMillis(longProp(n, "open-duration-ms", 10000)),
+                    intProp(n, "half-open-calls", 3)));
+            if (meterRegistry != null) {
+                Gauge.builder("resilience.circuit.state", breaker, b -> b.state().ordinal())
+                        .description("Circuit breaker state (0 closed, 1 open, 2 half-open)")
+                        .tag("name", n)
+                        .register(meterRegistry);
+            }
+            return breaker;
+        });
+    }
+
+    public Bulkhead bulkhead(String name) {
+        return bulkheads.computeIfAbsent(name, n -> {
+            Bulkhead bulkhead = new Bulkhead(n, intProp(n, "max-concurrent", 25),
+                    Duration.ofMillis(longProp(n, "max-wait-ms", 0)));
+            if (meterRegistry != null) {
+                Gauge.builder("resilience.bulkhead.in-use", bulkhead, Bulkhead::inUse)
+                        .description("Concurrent calls holding a bulkhead permit")
+                        .tag("name", n)
+                        .register(meterRegistry);
+            }
+            return bulkhead;
+        });
+    }
+
+    /** Count a call that was short-circuited before reaching the upstream. */
+    public void rejected(String name, String reason) {
+        if (meterRegistry == null) return;
+        Counter.builder("resilience.rejected")
+                .description("Calls rejected by a circuit breaker or bulkhead")
+                .tag("name", name).tag("reason", reason)
+                .register(meterRegistry).increment();
+    }
+
+    private int intProp(String name, String key, int def) {
+        return env.getProperty("app.resilience." + name + "." + key, Integer.class, def);
+    }
+
+    private long longProp(String name, String key, long def) {
+        return env.getProperty("app.resilience." + name + "." + key, Long.class, def);
+    }
+
+    private double doubleProp(String name, String key, double def) {
+        return env.getProperty("app.resilience." + name + "." + key, Double.class, def);
+    }
+}
@@ -0,0 +1,52 @@
+package com.knut4.backend.common.resilience;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Classic token bucket: {@code capacity} burst, refilled continuously at {@code permitsPerSecond}. */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.refillPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public boolean tryTake() {
+        lock.lock();
+        try {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Nanos until the next permit becomes available (0 if one is available now). */
+    public long nanosUntilNext() {
+        lock.lock();
+        try {
+            refill();
+            if (tokens >= 1) return 0;
+            return (long) Math.ceil((1 - tokens) / refillPerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,181 @@
+package com.knut4.backend.domain.llm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Caches LLM answers by {@link LlmContextKey} (canonicalized prompt context) so repeated lunch-time contexts skip
+ * local inference. In-memory tier: size bounded with expire-after-write; identical concurrent misses share one
+ * generation. Optional disk tier ({@code diskDir} != null): one JSON file per key, read on memory miss, written in
+ * the background, honoured for the same TTL, so warm answers survive restarts.
+ * Fallback answers ({@link LlmFallback}) are returned but never cached. A caller joining another caller's generation
+ * waits at most until its own {@link LlmRequestContext} deadline, then asks the delegate itself (which, past the
+ * deadline, answers with its fallback) - so an expired deadline (REDUCED tier) really means cache only.
+ */
+public class CachingLlmClient implements LlmClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingLlmClient.class);
+    private static final TypeReference<List<LlmMenuSuggestion>> MENUS = new TypeReference<>() {};
+    private static final TypeReference<List<StructuredMenuPlace>> STRUCTURED = new TypeReference<>() {};
+
+    private final LlmClient delegate;
+    private final AsyncCache<LlmContextKey, List<?>> cache;
+    private final Duration ttl;
+    private final int budgetBucketWon;
+    private final int cellMeters;
+    private final Path diskDir; // null -> memory only
+    private final Executor diskExecutor;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public CachingLlmClient(LlmClient delegate, long maxEntries, Duration ttl, int budgetBucketWon, int cellMeters,
+                            Path diskDir, Executor diskExecutor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.budgetBucketWon = budgetBucketWon;
+        this.cellMeters = cellMeters;
+        this.diskDir = diskDir;
+        this.diskExecutor = diskExecutor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "llmResult");
+        }
+        if (diskDir != null) {
+            try {
+                Files.createDirectories(diskDir);
+            } catch (IOException e) {
+                log.warn("LLM disk cache disabled, cannot create {}: {}", diskDir, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public List<LlmMenuSuggestion> suggestMenus(List<String> moods, String weather, Integer budget, Double latitude,
+                                                Double longitude, List<String> nearbyPlaceNames, int max) {
+        LlmContextKey key = LlmContextKey.of("menus", moods, weather, budget, latitude, longitude, nearbyPlaceNames,
+                max, budgetBucketWon, cellMeters);
+        return cached(key, MENUS,
+                () -> delegate.suggestMenus(moods, weather, budget, latitude, longitude, nearbyPlaceNames, max));
+    }
+
+    @Override
+    public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> moods, String weather, Integer budget,
+                                                            Double latitude, Double longitude, String placeSamplesJson, int menuMax) {
+        LlmContextKey key = LlmContextKey.of("structured", moods, weather, budget, latitude, longitude,
+                LlmContextKey.placeNames(placeSamplesJson), menuMax, budgetBucketWon, cellMeters);
+        return cached(key, STRUCTURED,
+                () -> delegate.suggestMenusWithPlaces(moods, weather, budget, latitude, longitude, placeSamplesJson, menuMax));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(LlmContextKey key, TypeReference<List<T>> type, Supplier<List<T>> generate) {
+        CompletableFuture<List<?>> mine = new CompletableFuture<>();
+        CompletableFuture<List<?>> entry = cache.get(key, (k, executor) -> mine);
+        if (entry != mine) {
+            try {
+                return (List<T>) await(entry); // hit, or another caller is generating the same context
+            } catch (TimeoutException e) {
+                return generate.get(); // not ready within our deadline: the delegate decides (fallback when out of time)
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return generate.get();
+            } catch (Exception e) {
+                return generate.get(); // that generation failed; try on our own
+            }
+        }
+        // this caller loads: disk tier first, then the model
+        List<T> result;
+        try {
+            List<T> fromDisk = readDisk(key, type);
+            if (fromDisk != null) {
+                mine.complete(fromDisk);
+                return fromDisk;
+            }
+            result = generate.get();
+        } catch (RuntimeException | Error e) { // never leave waiters on an entry that cannot complete
+            mine.completeExceptionally(e);
+            cache.asMap().remove(key, mine);
+            throw e;
+        }
+        if (result == null || result.isEmpty() || LlmFallback.isFallback(result)) {
+            mine.complete(result);
+            cache.asMap().remove(key, mine); // waiters still get it, later calls retry the model
+            return result;
+        }
+        List<T> stored = List.copyOf(result); // shared between callers
+        mine.complete(stored);
+        writeDisk(key, stored);
+        return stored;
+    }
+
+    /** Value of an in-flight or completed entry, waiting no longer than the current call's deadline (if any). */
+    private static List<?> await(CompletableFuture<List<?>> entry) throws Exception {
+        Instant deadline = LlmRequestContext.current().deadline();
+        if (entry.isDone() || deadline == null) return entry.join();
+        long waitMillis = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+        return entry.get(waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private <T> List<T> readDisk(LlmContextKey key, TypeReference<List<T>> type) {
+        if (diskDir == null) return null;
+        Path file = diskDir.resolve(key.digest() + ".json");
+        try {
+            if (!Files.isRegularFile(file)) return null;
+            Instant written = Files.getLastModifiedTime(file).toInstant();
+            if (written.plus(ttl).isBefore(Instant.now())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            List<T> value = mapper.readValue(file.toFile(), type);
+            return value == null || value.isEmpty() ? null : value;
+        } catch (Exception e) {
+            log.debug("LLM disk cache read failed for {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeDisk(LlmContextKey key, List<?> value) {
+        if (diskDir == null) return;
+        Path file = diskDir.resolve(key.digest() + ".json");
+        Runnable write = () -> {
+            try {
+                Path tmp = Files.createTempFile(diskDir, "llm", ".tmp");
+                mapper.writeValue(tmp.toFile(), value);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (Exception e) {
+                log.debug("LLM disk cache write failed for {}: {}", file, e.getMessage());
+            }
+        };
+        try {
+            diskExecutor.execute(write);
+        } catch (RejectedExecutionException e) {
+            // best effort: the memory tier already has the value
+        }
+    }
+
+    /** Visible for tests / diagnostics. */
+    long estimatedSize() { return cache.synchronous().estimatedSize(); }
+}
@@ -0,0 +1,70 @@
+package com.knut4.backend.domain.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Gives the LLM {@code hedgeAfter} to answer; past that the caller gets the fast path's answer (marked as
+ * {@link LlmFallback}) while the generation keeps running in the background. Placed above {@link CachingLlmClient},
+ * so the late answer still lands in the cache for the next equivalent request.
+ */
+public class HedgingLlmClient implements LlmClient {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingLlmClient.class);
+
+    private final LlmClient primary;
+    private final LlmClient fastPath;
+    private final Duration hedgeAfter;
+    private final Executor executor;
+
+    public HedgingLlmClient(LlmClient primary, LlmClient fastPath, Duration hedgeAfter, Executor executor) {
+        this.primary = primary;
+        this.fastPath = fastPath;
+        this.hedgeAfter = hedgeAfter;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<LlmMenuSuggestion> suggestMenus(List<String> moods, String weather, Integer budget, Double latitude,
+                                                Double longitude, List<String> nearbyPlaceNames, int max) {
+        return hedged(() -> primary.suggestMenus(moods, weather, budget, latitude, longitude, nearbyPlaceNames, max),
+                () -> fastPath.suggestMenus(moods, weather, budget, latitude, longitude, nearbyPlaceNames, max));
+    }
+
+    @Override
+    public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> moods, String weather, Integer budget,
+                                                            Double latitude, Double longitude, String placeSamplesJson, int menuMax) {
+        return hedged(() -> primary.suggestMenusWithPlaces(moods, weather, budget, latitude, longitude, placeSamplesJson, menuMax),
+                () -> fastPath.suggestMenusWithPlaces(moods, weather, budget, latitude, longitude, placeSamplesJson, menuMax));
+    }
+
+    private <T> List<T> hedged(Supplier<List<T>> call, Supplier<List<T>> fast) {
+        LlmRequestContext ctx = LlmRequestContext.current(); // priority / user / deadline for the scheduler below
+        CompletableFuture<List<T>> generation;
+        try {
+            generation = CompletableFuture.supplyAsync(() -> LlmRequestContext.with(ctx, call), executor);
+        } catch (RejectedExecutionException e) {
+            return call.get(); // executor saturated: plain blocking call
+        }
+        try {
+            List<T> result = generation.get(hedgeAfter.toMillis(), TimeUnit.MILLISECONDS);
+            if (result != null && !result.isEmpty() && !LlmFallback.isFallback(result)) return result;
+        } catch (TimeoutException e) {
+            log.debug("LLM slower than {} ms, answering from the fast path", hedgeAfter.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("LLM generation failed, answering from the fast path: {}", e.toString());
+        }
+        return LlmFallback.of(fast.get());
+    }
+}
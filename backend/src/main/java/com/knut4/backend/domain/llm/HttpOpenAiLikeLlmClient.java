@@ -1,34 +1,90 @@
 package com.knut4.backend.domain.llm;
 
+import com.knut4.backend.common.resilience.Bulkhead;
+import com.knut4.backend.common.resilience.CircuitBreaker;
+import com.knut4.backend.common.resilience.Deadline;
+import com.knut4.backend.common.resilience.ResilienceRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 
-/** HTTP implementation calling an OpenAI-compatible /v1/chat/completions endpoint (GPT4All server). */
+/**
+ * HTTP implementation calling an OpenAI-compatible /v1/chat/completions endpoint (GPT4All server).
+ * Calls go through the "llm" bulkhead and circuit breaker: when the server is saturated or unhealthy they fail fast
+ * into {@code fallback} / {@code fallbackStructured} instead of holding a request thread for the full timeout.
+ * Completions are consumed as a token stream ({@code app.llm.stream.enabled}) and cancelled as soon as enough
+ * distinct menus have been parsed ({@code app.llm.stream.stop-after}).
+ * Prompts are built by {@link LlmPromptBuilder} within {@code app.llm.prompt.max-tokens}. Metrics:
+ * {@code llm.prompt.tokens{call}} (estimated), {@code llm.completion.tokens{call, source}} (reported by the server
+ * when it returns usage, else estimated), {@code llm.prompt.rows.dropped{call}}.
+ */
 @Component
+@Qualifier("llmBackend") // decorated by the @Primary client from LlmClientConfig
 @ConditionalOnProperty(name = "app.llm.mode", havingValue = "http")
 public class HttpOpenAiLikeLlmClient implements LlmClient {
 
-    private final WebClient webClient;
+    private final LlmEndpointPool endpoints; // one or more inference servers (balanced, health-checked, hedged)
     private final String model;
+    private final ResilienceRegistry resilience;
+    private final CircuitBreaker breaker;
+    private final Bulkhead bulkhead;
+    private final LlmPromptBuilder prompts;
+    private final MeterRegistry meterRegistry; // may be null
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_CHUNK = new ParameterizedTypeReference<>() {};
 
+    @Value("${app.llm.stream.enabled:true}")
+    private boolean streamEnabled = true;
+    @Value("${app.llm.stream.stop-after:6}")
+    private int streamStopAfter = 6;
+
+    /** Spring constructor: endpoints from {@link com.knut4.backend.common.config.LlmClientConfig}. */
+    @Autowired
     public HttpOpenAiLikeLlmClient(
-        @Value("${llm.openai.base-url:http://localhost:4891/v1}") String baseUrl,
-        @Value("${llm.openai.model:}") String model
+        LlmEndpointPool endpoints,
+        @Value("${llm.openai.model:}") String model,
+        ResilienceRegistry resilience,
+        @Value("${app.llm.prompt.max-tokens:600}") int promptMaxTokens,
+        ObjectProvider<MeterRegistry> meterRegistry
     ) {
-        this.webClient = WebClient.builder().baseUrl(baseUrl).build();
+        this(endpoints, model, resilience, promptMaxTokens, meterRegistry.getIfAvailable());
+    }
+
+    HttpOpenAiLikeLlmClient(LlmEndpointPool endpoints, String model, ResilienceRegistry resilience,
+                            int promptMaxTokens, MeterRegistry meterRegistry) {
+        this.endpoints = endpoints;
+        this.prompts = new LlmPromptBuilder(promptMaxTokens);
+        this.meterRegistry = meterRegistry;
         this.model = model == null || model.isBlank()?"":model;
+        this.resilience = resilience;
+        this.breaker = resilience.circuitBreaker("llm");
+        this.bulkhead = resilience.bulkhead("llm");
+    }
+
+    /** Standalone constructor (tests / tools): one unpooled endpoint, default resilience settings. */
+    public HttpOpenAiLikeLlmClient(String baseUrl, String model) {
+        this(LlmEndpointPool.single(WebClient.builder().baseUrl(baseUrl).build()), model, ResilienceRegistry.standalone(),
+                600, null);
     }
 
     record Choice(Map<String,Object> message) {}
@@ -37,36 +93,23 @@ public class HttpOpenAiLikeLlmClient implements LlmClient {
     public List<LlmMenuSuggestion> suggestMenus(List<String> moods, String weather, Integer budget, Double latitude, Double longitude, List<String> nearbyPlaceNames, int max) {
     long start = System.nanoTime();
     try {
-            String prompt = buildPrompt(moods, weather, budget, latitude, longitude, nearbyPlaceNames, max);
+            LlmPromptBuilder.Prompt prompt = prompts.menus(moods, weather, budget, nearbyPlaceNames, max);
             Map<String,Object> payload = Map.of(
                     "model", model.isBlank()?"gpt4all":model,
-                    "messages", List.of(Map.of("role","user","content", prompt)),
+                    "messages", List.of(Map.of("role","user","content", prompt.text())),
                     "max_tokens", 256,
                     "temperature", 0.3
             );
-            Map<String,Object> resp = webClient.post().uri("/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(BodyInserters.fromValue(payload))
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(15))
-                    .onErrorResume(e -> Mono.empty())
-                    .block();
-            if (resp == null) {
+            int target = stopTarget(max);
+            Completion completion = complete(payload, timeoutFor(Duration.ofSeconds(15)),
+                    text -> parseContent(LlmStreamParsing.completeLines(text), max).size() >= target);
+            if (completion == null) {
                 org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).warn("LLM empty response, using fallback");
                 return fallback(moods, weather, max);
             }
-            Object choices = resp.get("choices");
-            if (!(choices instanceof List<?> list) || list.isEmpty()) return fallback(moods, weather, max);
-            // Expect assistant content with JSON lines or bullet list; we parse naive lines
-            Object first = list.get(0);
-            String content;
-            if (first instanceof Map<?,?> m) {
-                Object message = m.get("message");
-                if (message instanceof Map<?,?> mm) {
-                    content = String.valueOf(mm.get("content"));
-                } else content = String.valueOf(m.get("text"));
-            } else content = first.toString();
+            recordTokens("menus", prompt, completion);
+            // Expect assistant content with one "menu - reason" per line; a cut-off stream may end mid-line
+            String content = completion.truncated() ? LlmStreamParsing.completeLines(completion.content()) : completion.content();
             return parseContent(content, max);
         } catch (Exception e) {
             org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).error("LLM suggestMenus error: {}", e.toString());
@@ -78,14 +121,130 @@ public class HttpOpenAiLikeLlmClient implements LlmClient {
         }
     }
 
-    private String buildPrompt(List<String> moods, String weather, Integer budget, Double lat, Double lon, List<String> nearby, int max) {
-        return "You are a Korean food menu recommender. Return up to " + max + " distinct menu items with a short Korean reason.\n" +
-                "Output format: one item per line: 메뉴명 - 이유. No numbering.\n" +
-                "Moods: " + (moods==null?"":String.join(",", moods)) + "\n" +
-                "Weather: " + weather + "\n" +
-                "Budget: " + (budget==null?"?":budget) + "\n" +
-                "Location: " + lat + "," + lon + "\n" +
-                "Nearby place cues: " + (nearby==null?"":String.join(",", nearby));
+    /**
+     * Assistant text of one completion; {@code truncated} when generation was cut off before the model finished.
+     * {@code completionTokens}: as reported in the response's {@code usage}, null when the server did not say.
+     */
+    record Completion(String content, boolean truncated, Integer completionTokens) {}
+
+    private void recordTokens(String call, LlmPromptBuilder.Prompt prompt, Completion completion) {
+        if (meterRegistry == null) return;
+        DistributionSummary.builder("llm.prompt.tokens").description("Estimated prompt size")
+                .baseUnit("tokens").tag("call", call)
+                .register(meterRegistry).record(prompt.estimatedTokens());
+        DistributionSummary.builder("llm.prompt.rows.dropped").description("Context rows left out of the prompt to stay within the token budget")
+                .tag("call", call)
+                .register(meterRegistry).record(prompt.dropped());
+        boolean reported = completion.completionTokens() != null;
+        DistributionSummary.builder("llm.completion.tokens").description("Generated tokens per completion")
+                .baseUnit("tokens").tag("call", call).tag("source", reported ? "reported" : "estimated")
+                .register(meterRegistry)
+                .record(reported ? completion.completionTokens() : LlmPromptBuilder.estimateTokens(completion.content()));
+    }
+
+    /** Generations stop once this many distinct menus are parsed (recommend() shows 4; the rest absorbs preference filtering). */
+    private int stopTarget(int max) {
+        return Math.max(1, Math.min(max, streamStopAfter));
+    }
+
+    /** {@code max}, shortened to the caller's deadline ({@link LlmRequestContext}) when it has one. */
+    private static Duration timeoutFor(Duration max) {
+        Instant deadline = LlmRequestContext.current().deadline();
+        return deadline == null ? max : Deadline.at(deadline).cap(max);
+    }
+
+    /**
+     * POST /chat/completions inside the bulkhead and circuit breaker, streamed when enabled.
+     * @param enough evaluated on the text received so far; true cancels the generation (streaming only)
+     * @return the completion, or null when the call was rejected, failed, timed out empty or had no content (callers fall back)
+     */
+    private Completion complete(Map<String,Object> payload, Duration timeout, Predicate<String> enough) {
+        if (timeout.isZero()) {
+            org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).warn("LLM deadline already passed, skipping call");
+            return null;
+        }
+        if (!bulkhead.tryAcquireWaiting()) {
+            resilience.rejected("llm", "bulkhead_full");
+            org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).warn("LLM bulkhead full, skipping call");
+            return null;
+        }
+        try {
+            if (!breaker.tryAcquirePermission()) {
+                resilience.rejected("llm", "circuit_open");
+                org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).warn("LLM circuit open, skipping call");
+                return null;
+            }
+            long start = System.nanoTime();
+            try {
+                Completion completion = streamEnabled ? streamCompletion(payload, timeout, enough) : fullCompletion(payload, timeout);
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                if (completion == null) breaker.onError(elapsed); else breaker.onSuccess(elapsed);
+                return completion;
+            } catch (Exception e) {
+                breaker.onError(Duration.ofNanos(System.nanoTime() - start));
+                org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).warn("LLM call failed: {}", e.toString());
+                return null;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Completion fullCompletion(Map<String,Object> payload, Duration timeout) {
+        Map<String,Object> resp = endpoints.call(client -> client.post().uri("/chat/completions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromValue(payload))
+                        .retrieve()
+                        .bodyToMono(Map.class))
+                .timeout(timeout)
+                .block();
+        if (resp == null) return null;
+        Object choices = resp.get("choices");
+        if (!(choices instanceof List<?> list) || list.isEmpty()) return null;
+        Object first = list.get(0);
+        String content;
+        if (first instanceof Map<?,?> m) {
+            Object message = m.get("message");
+            if (message instanceof Map<?,?> mm) content = String.valueOf(mm.get("content")); else content = String.valueOf(m.get("text"));
+        } else content = first.toString();
+        Integer completionTokens = resp.get("usage") instanceof Map<?,?> usage
+                && usage.get("completion_tokens") instanceof Number n ? n.intValue() : null;
+        return new Completion(content, false, completionTokens);
+    }
+
+    /**
+     * {@code stream: true}: accumulates content deltas and re-checks {@code enough} whenever a line or JSON element may
+     * have completed. Stopping cancels the HTTP exchange, which makes the server abort the generation. Hitting the
+     * deadline keeps what has arrived so far (marked truncated).
+     */
+    private Completion streamCompletion(Map<String,Object> payload, Duration timeout, Predicate<String> enough) {
+        Map<String,Object> body = new HashMap<>(payload);
+        body.put("stream", true);
+        StringBuilder content = new StringBuilder();
+        AtomicBoolean finished = new AtomicBoolean();
+        endpoints.stream(client -> client.post().uri("/chat/completions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .body(BodyInserters.fromValue(body))
+                        .retrieve()
+                        .bodyToFlux(SSE_CHUNK))
+                .doOnComplete(() -> finished.set(true))
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> {
+                    if (!"[DONE]".equals(data.trim())) return true;
+                    finished.set(true);
+                    return false;
+                })
+                .map(LlmStreamParsing::deltaContent)
+                .takeUntil(delta -> {
+                    content.append(delta);
+                    return (delta.indexOf('\n') >= 0 || delta.indexOf('}') >= 0) && enough.test(content.toString());
+                })
+                .take(timeout)
+                .blockLast();
+        if (content.isEmpty()) return null;
+        return new Completion(content.toString(), !finished.get(), null);
     }
 
     private List<LlmMenuSuggestion> parseContent(String content, int max) {
@@ -108,6 +267,8 @@ public class HttpOpenAiLikeLlmClient implements LlmClient {
                 else { menu = trimmed; reason = "추천"; }
             }
             if (menu.length() > 40) menu = menu.substring(0, 40);
+            String m = menu;
+            if (out.stream().anyMatch(o -> o.menu().equals(m))) continue; // duplicate menu
             out.add(new LlmMenuSuggestion(menu, reason));
             if (out.size() >= max) break;
         }
@@ -115,50 +276,36 @@ public class HttpOpenAiLikeLlmClient implements LlmClient {
     }
 
     private List<LlmMenuSuggestion> fallback(List<String> moods, String weather, int max) {
-        List<LlmMenuSuggestion> list = new ArrayList<>();
-        String seed = (moods!=null && !moods.isEmpty())?moods.get(0):"기본";
-        for (int i=0;i<max;i++) list.add(new LlmMenuSuggestion(seed+"메뉴"+(i+1), weather+" 날씨 기본"));
-        return list;
+        return LlmFallback.menus(moods, weather, max);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> moods, String weather, Integer budget, Double latitude, Double longitude, String placeSamplesJson, int menuMax) {
     long start = System.nanoTime();
-    String prompt = "당신은 음식 추천 시스템입니다. 아래 JSON 배열(placeSamples)의 장소 리스트를 참고하여 최대 " + menuMax + "개의 메뉴를 제안하고 각 메뉴에 잘 맞는 장소 1~2개를 선택하세요." +
-        "\n조건: 날씨="+weather+", 예산="+(budget==null?"?":budget)+", 기분="+(moods==null?"":String.join(",", moods))+"" +
-        "\n장소 배열의 각 객체 필드: name(이름), distanceMeters(사용자와의 거리 m), category(추정 카테고리)." +
-        "\n반드시 아래 JSON Schema에 맞는 하나의 JSON 배열을 출력하세요. 그 외 텍스트 금지." +
-        "\nSchema: [{\"menu\":string, \"reason\":string, \"places\":[{\"name\":string}]}]" +
-        "\n제약: reason 25자 내, menu 중복 금지, places 배열은 최대 2개 name만 포함." +
-        "\nplaceSamples=" + placeSamplesJson + "\n출력:";
         try {
+            LlmPromptBuilder.Prompt prompt = prompts.structured(moods, weather, budget, placeSamplesJson, menuMax);
             Map<String,Object> payload = Map.of(
                     "model", model.isBlank()?"gpt4all":model,
-                    "messages", List.of(Map.of("role","user","content", prompt)),
+                    "messages", List.of(Map.of("role","user","content", prompt.text())),
             "max_tokens", 600,
             "temperature", 0.3
             );
-            Map<String,Object> resp = webClient.post().uri("/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(BodyInserters.fromValue(payload))
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(25))
-                    .onErrorResume(e -> Mono.empty())
-                    .block();
-            if (resp == null) {
+            int target = stopTarget(menuMax);
+            Completion completion = complete(payload, timeoutFor(Duration.ofSeconds(25)), text -> {
+                String closed = LlmStreamParsing.closedArrayPrefix(text);
+                return closed != null && parseStructuredJson(closed, menuMax).size() >= target;
+            });
+            if (completion == null) {
                 org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).warn("LLM structured empty response, fallback");
                 return fallbackStructured(moods, weather, menuMax);
             }
-            Object choices = resp.get("choices");
-            if (!(choices instanceof List<?> list) || list.isEmpty()) return fallbackStructured(moods, weather, menuMax);
-            Object first = list.get(0);
-            String content;
-            if (first instanceof Map<?,?> m) {
-                Object message = m.get("message");
-                if (message instanceof Map<?,?> mm) content = String.valueOf(mm.get("content")); else content = String.valueOf(m.get("text"));
-            } else content = first.toString();
+            recordTokens("structured", prompt, completion);
+            String content = completion.content();
+            if (completion.truncated()) {
+                String closed = LlmStreamParsing.closedArrayPrefix(content); // drop the element still being generated
+                if (closed != null) content = closed;
+            }
             return parseStructuredJson(content, menuMax);
         } catch (Exception e) {
             org.slf4j.LoggerFactory.getLogger(HttpOpenAiLikeLlmClient.class).error("LLM structured error: {}", e.toString());
@@ -187,7 +334,7 @@ public class HttpOpenAiLikeLlmClient implements LlmClient {
                 Object menuObj = obj.get("menu");
                 if (menuObj == null) continue;
                 String menu = String.valueOf(menuObj).trim();
-                if (menu.isEmpty()) continue;
+                if (menu.isEmpty() || out.stream().anyMatch(o -> o.menu().equals(menu))) continue;
                 String reason = obj.getOrDefault("reason", "추천").toString();
                 List<String> places = new ArrayList<>();
                 Object placesObj = obj.get("places");
@@ -240,9 +387,6 @@ public class HttpOpenAiLikeLlmClient implements LlmClient {
     }
 
     private List<StructuredMenuPlace> fallbackStructured(List<String> moods, String weather, int menuMax) {
-        List<StructuredMenuPlace> list = new ArrayList<>();
-        String seed = (moods!=null && !moods.isEmpty())?moods.get(0):"기본";
-        for (int i=0;i<menuMax;i++) list.add(new StructuredMenuPlace(seed+"메뉴"+(i+1), List.of(), weather+" 기본"));
-        return list;
+        return LlmFallback.structured(moods, weather, menuMax);
     }
 }
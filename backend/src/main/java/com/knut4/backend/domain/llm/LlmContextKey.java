@@ -0,0 +1,80 @@
+package com.knut4.backend.domain.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Canonical form of the context an LLM prompt is built from, used as cache key. Contexts that would produce
+ * near-identical prompts map to the same key: moods are trimmed/lower-cased/sorted, the budget is bucketed,
+ * coordinates are reduced to a grid cell and place samples to a hash of their sorted names (distances differ per
+ * caller but the set of places within one cell does not).
+ */
+record LlmContextKey(String kind, String moods, String weather, String budgetBucket, long latCell, long lonCell,
+                     String placesHash, int max) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static LlmContextKey of(String kind, List<String> moods, String weather, Integer budget, Double latitude,
+                            Double longitude, Collection<String> placeNames, int max, int budgetBucketWon, int cellMeters) {
+        double cellDegrees = cellMeters / 111_320d;
+        return new LlmContextKey(
+                kind,
+                String.join(",", normalize(moods)),
+                weather == null ? "" : weather.trim().toLowerCase(Locale.ROOT),
+                budget == null ? "?" : String.valueOf(budget / Math.max(1, budgetBucketWon)),
+                latitude == null ? Long.MIN_VALUE : (long) Math.floor(latitude / cellDegrees),
+                longitude == null ? Long.MIN_VALUE : (long) Math.floor(longitude / cellDegrees),
+                sha256(String.join("\n", normalize(placeNames))).substring(0, 16),
+                max);
+    }
+
+    /** Place names from the structured prompt's sample JSON ([{name, distanceMeters, category}]); raw text if unparsable. */
+    static List<String> placeNames(String placeSamplesJson) {
+        List<String> names = new ArrayList<>();
+        if (placeSamplesJson == null || placeSamplesJson.isBlank()) return names;
+        try {
+            JsonNode arr = MAPPER.readTree(placeSamplesJson);
+            for (JsonNode n : arr) {
+                JsonNode name = n.get("name");
+                if (name != null && !name.isNull()) names.add(name.asText());
+            }
+        } catch (Exception e) {
+            names.add(placeSamplesJson);
+        }
+        return names;
+    }
+
+    /** Stable digest of the whole key (disk tier file name). */
+    String digest() {
+        return sha256(toString());
+    }
+
+    private static List<String> normalize(Collection<String> values) {
+        if (values == null) return List.of();
+        return values.stream()
+                .filter(Objects::nonNull)
+                .map(v -> v.trim().toLowerCase(Locale.ROOT))
+                .filter(v -> !v.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.knut4.backend.domain.llm;
+
+import com.knut4.backend.common.resilience.LatencyWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Set of interchangeable OpenAI-compatible inference servers.
+ * <ul>
+ *   <li>balancing: each call goes to the healthy endpoint with the fewest outstanding requests (ties rotate)</li>
+ *   <li>health: a background probe ({@code GET /models}) marks endpoints up/down; {@code failureThreshold}
+ *   consecutive call failures also mark an endpoint down until the next successful probe. With every endpoint
+ *   down, calls are still spread over all of them rather than refused.</li>
+ *   <li>hedging: when the first endpoint has produced nothing after the adaptive delay (percentile of recent
+ *   time-to-first-value) or fails, the call is repeated on a second endpoint; the first to produce a value wins
+ *   and the other is cancelled.</li>
+ * </ul>
+ * Metrics: {@code llm.endpoint.outstanding{endpoint}}, {@code llm.endpoint.healthy{endpoint}}, {@code llm.hedge}.
+ */
+public class LlmEndpointPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmEndpointPool.class);
+    private static final int MIN_SAMPLES = 20;
+
+    public record Settings(Duration probeInterval, Duration probeTimeout, int failureThreshold,
+                           boolean hedge, double hedgePercentile, Duration hedgeMinDelay, Duration hedgeMaxDelay) {}
+
+    static final class Endpoint {
+        final String baseUrl;
+        final WebClient client;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        volatile boolean healthy = true;
+
+        Endpoint(String baseUrl, WebClient client) {
+            this.baseUrl = baseUrl;
+            this.client = client;
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger rotation = new AtomicInteger();
+    // separate windows: first token of a stream vs. a whole completion
+    private final LatencyWindow streamLatency = new LatencyWindow(200);
+    private final LatencyWindow fullLatency = new LatencyWindow(200);
+    private final ScheduledExecutorService prober;
+
+    public LlmEndpointPool(WebClient template, List<String> baseUrls, Settings settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        List<Endpoint> list = new ArrayList<>();
+        for (String url : baseUrls) {
+            // shares the pooled connector; a blank URL keeps the template's own base URL (see single)
+            WebClient client = url == null || url.isBlank() ? template : template.mutate().baseUrl(url).build();
+            Endpoint e = new Endpoint(url, client);
+            list.add(e);
+            if (meterRegistry != null) {
+                Gauge.builder("llm.endpoint.outstanding", e, x -> x.outstanding.get())
+                        .description("In-flight LLM requests per inference endpoint")
+                        .tag("endpoint", url).register(meterRegistry);
+                Gauge.builder("llm.endpoint.healthy", e, x -> x.healthy ? 1 : 0)
+                        .description("1 when the inference endpoint passes health checks")
+                        .tag("endpoint", url).register(meterRegistry);
+            }
+        }
+        this.endpoints = List.copyOf(list);
+        if (settings.probeInterval() != null && !settings.probeInterval().isZero() && !endpoints.isEmpty()) {
+            prober = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "llm-probe");
+                t.setDaemon(true);
+                return t;
+            });
+            long every = settings.probeInterval().toMillis();
+            prober.scheduleWithFixedDelay(this::probe, every, every, TimeUnit.MILLISECONDS);
+        } else {
+            prober = null;
+        }
+    }
+
+    /** One endpoint with {@code client}'s own base URL, no probing or hedging (tests / tools). */
+    public static LlmEndpointPool single(WebClient client) {
+        return new LlmEndpointPool(client, List.of(""), new Settings(Duration.ZERO, Duration.ofSeconds(1), Integer.MAX_VALUE,
+                false, 0.95, Duration.ZERO, Duration.ZERO), null);
+    }
+
+    /** Non-streaming request (whole completion as one value). */
+    public <T> Mono<T> call(Function<WebClient, Mono<T>> request) {
+        return hedged(c -> request.apply(c).flux(), fullLatency).next();
+    }
+
+    /** Streaming request; hedging races on the first chunk. */
+    public <T> Flux<T> stream(Function<WebClient, Flux<T>> request) {
+        return hedged(request, streamLatency);
+    }
+
+    private <T> Flux<T> hedged(Function<WebClient, Flux<T>> request, LatencyWindow latency) {
+        return Flux.defer(() -> {
+            Endpoint first = pick(null);
+            if (first == null) return Flux.error(new IllegalStateException("no LLM endpoint configured"));
+            if (!settings.hedge() || endpoints.size() < 2) return tracked(first, request, latency);
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+            Flux<T> primary = tracked(first, request, latency).doOnError(e -> primaryFailed.tryEmitEmpty());
+            Duration delay = hedgeDelay(latency);
+            Flux<T> backup = Mono.firstWithSignal(Mono.delay(delay).then(), primaryFailed.asMono())
+                    .thenMany(Flux.defer(() -> {
+                        Endpoint second = pick(first);
+                        if (second == null) return Flux.<T>empty();
+                        log.debug("hedging LLM request {} -> {} after {} ms", first.baseUrl, second.baseUrl, delay.toMillis());
+                        if (meterRegistry != null) {
+                            Counter.builder("llm.hedge").description("LLM requests repeated on a second endpoint")
+                                    .register(meterRegistry).increment();
+                        }
+                        return tracked(second, request, latency);
+                    }));
+            return Flux.firstWithValue(primary, backup);
+        });
+    }
+
+    private <T> Flux<T> tracked(Endpoint e, Function<WebClient, Flux<T>> request, LatencyWindow latency) {
+        return Flux.defer(() -> {
+            e.outstanding.incrementAndGet();
+            long start = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return request.apply(e.client)
+                    .doOnNext(v -> {
+                        if (first.compareAndSet(true, false)) {
+                            latency.record(Duration.ofNanos(System.nanoTime() - start));
+                            e.consecutiveFailures.set(0);
+                        }
+                    })
+                    .doOnError(err -> {
+                        if (e.consecutiveFailures.incrementAndGet() >= settings.failureThreshold() && e.healthy) {
+                            e.healthy = false;
+                            log.warn("LLM endpoint {} marked unhealthy after {} failures: {}", e.baseUrl,
+                                    e.consecutiveFailures.get(), err.toString());
+                        }
+                    })
+                    .doFinally(s -> e.outstanding.decrementAndGet());
+        });
+    }
+
+    /** Least outstanding healthy endpoint other than {@code exclude}; any endpoint when none is healthy. */
+    Endpoint pick(Endpoint exclude) {
+        Endpoint best = pickFrom(exclude, true);
+        return best != null ? best : pickFrom(exclude, false);
+    }
+
+    private Endpoint pickFrom(Endpoint exclude, boolean healthyOnly) {
+        int n = endpoints.size();
+        int offset = Math.floorMod(rotation.getAndIncrement(), Math.max(1, n));
+        Endpoint best = null;
+        for (int i = 0; i < n; i++) {
+            Endpoint e = endpoints.get((offset + i) % n);
+            if (e == exclude || (healthyOnly && !e.healthy)) continue;
+            if (best == null || e.outstanding.get() < best.outstanding.get()) best = e;
+        }
+        return best;
+    }
+
+    private Duration hedgeDelay(LatencyWindow latency) {
+        Duration d = latency.percentile(settings.hedgePercentile(), MIN_SAMPLES, settings.hedgeMaxDelay());
+        if (d.compareTo(settings.hedgeMinDelay()) < 0) return settings.hedgeMinDelay();
+        if (d.compareTo(settings.hedgeMaxDelay()) > 0) return settings.hedgeMaxDelay();
+        return d;
+    }
+
+    /** Health probe of every endpoint (scheduled; visible for tests). */
+    void probe() {
+        for (Endpoint e : endpoints) {
+            boolean ok;
+            try {
+                ok = e.client.get().uri("/models").retrieve().toBodilessEntity()
+                        .timeout(settings.probeTimeout())
+                        .map(r -> r.getStatusCode().is2xxSuccessful())
+                        .onErrorReturn(false)
+                        .blockOptional().orElse(false);
+            } catch (Exception ex) {
+                ok = false;
+            }
+            if (ok != e.healthy) log.info("LLM endpoint {} is now {}", e.baseUrl, ok ? "healthy" : "unhealthy");
+            e.healthy = ok;
+            if (ok) e.consecutiveFailures.set(0);
+        }
+    }
+
+    List<Endpoint> endpoints() { return endpoints; }
+
+    @Override
+    public void close() {
+        if (prober != null) prober.shutdownNow();
+    }
+}
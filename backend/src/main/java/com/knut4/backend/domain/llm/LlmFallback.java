@@ -0,0 +1,49 @@
+package com.knut4.backend.domain.llm;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Marks suggestion lists produced by a client's local fallback (LLM unreachable / unusable answer) instead of the
+ * model, so decorators can tell them apart (e.g. {@link CachingLlmClient} never caches them).
+ */
+public final class LlmFallback<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> items;
+
+    private LlmFallback(List<E> items) {
+        this.items = List.copyOf(items);
+    }
+
+    public static <E> List<E> of(List<E> items) {
+        return new LlmFallback<>(items);
+    }
+
+    /** Placeholder menus used when the model cannot answer (seeded by the first mood). */
+    public static List<LlmMenuSuggestion> menus(List<String> moods, String weather, int max) {
+        List<LlmMenuSuggestion> list = new ArrayList<>();
+        String seed = (moods!=null && !moods.isEmpty())?moods.get(0):"기본";
+        for (int i=0;i<max;i++) list.add(new LlmMenuSuggestion(seed+"메뉴"+(i+1), weather+" 날씨 기본"));
+        return of(list);
+    }
+
+    /** Structured counterpart of {@link #menus}: same placeholders without place picks. */
+    public static List<StructuredMenuPlace> structured(List<String> moods, String weather, int menuMax) {
+        List<StructuredMenuPlace> list = new ArrayList<>();
+        String seed = (moods!=null && !moods.isEmpty())?moods.get(0):"기본";
+        for (int i=0;i<menuMax;i++) list.add(new StructuredMenuPlace(seed+"메뉴"+(i+1), List.of(), weather+" 기본"));
+        return of(list);
+    }
+
+    public static boolean isFallback(List<?> list) {
+        return list instanceof LlmFallback<?>;
+    }
+
+    @Override
+    public E get(int index) { return items.get(index); }
+
+    @Override
+    public int size() { return items.size(); }
+}
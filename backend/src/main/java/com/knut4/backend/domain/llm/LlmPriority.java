@@ -0,0 +1,11 @@
+package com.knut4.backend.domain.llm;
+
+/** Scheduling class of an LLM call; lower ordinal is served first by {@link LlmScheduler}. */
+public enum LlmPriority {
+    /** User waiting on a fresh recommendation. */
+    INTERACTIVE,
+    /** User-triggered regeneration of an earlier recommendation. */
+    RETRY,
+    /** Warm-up / prefetch work nobody is waiting on. */
+    BACKGROUND
+}
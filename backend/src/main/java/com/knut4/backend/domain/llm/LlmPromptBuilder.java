@@ -0,0 +1,153 @@
+package com.knut4.backend.domain.llm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds compact prompts for {@link HttpOpenAiLikeLlmClient} within a token budget. On CPU inference prompt
+ * processing time grows with prompt length, so context is encoded as a table ({@code name|m|cat} rows) instead of
+ * JSON objects, place samples are deduplicated by name and ranked nearest-first round-robin across categories, and
+ * rows are appended only while the estimated prompt stays within {@code maxTokens}.
+ * <p>
+ * Token counts are estimates ({@link #estimateTokens}): no tokenizer of the served model is available here.
+ */
+final class LlmPromptBuilder {
+
+    private static final TypeReference<List<Map<String, Object>>> SAMPLES = new TypeReference<>() {};
+
+    /** Prompt text with its estimated size; {@code dropped} = context rows left out to stay within budget. */
+    record Prompt(String text, int estimatedTokens, int included, int dropped) {}
+
+    record PlaceRow(String name, long distanceMeters, String category) {}
+
+    private final int maxTokens;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    LlmPromptBuilder(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Rough BPE estimate: ~4 ASCII characters per token, one token per other character (Hangul syllables are
+     * usually one or more tokens), plus one per line break. Deliberately errs on the high side for Korean text.
+     */
+    static int estimateTokens(CharSequence text) {
+        if (text == null) return 0;
+        int ascii = 0;
+        int other = 0;
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') lines++;
+            else if (c < 0x80) ascii++;
+            else if (!Character.isLowSurrogate(c)) other++;
+        }
+        return (ascii + 3) / 4 + other + lines;
+    }
+
+    Prompt menus(List<String> moods, String weather, Integer budget, List<String> nearbyPlaceNames, int max) {
+        StringBuilder sb = new StringBuilder()
+                .append("You are a Korean food menu recommender. Return up to ").append(max)
+                .append(" distinct menu items with a short Korean reason.\n")
+                .append("Output format: one item per line: 메뉴명 - 이유. No numbering.\n")
+                .append("Moods: ").append(moods == null ? "" : String.join(",", moods)).append('\n')
+                .append("Weather: ").append(weather).append('\n')
+                .append("Budget: ").append(budget == null ? "?" : budget).append('\n')
+                .append("Nearby place cues: ");
+        int tokens = estimateTokens(sb);
+        Set<String> names = new LinkedHashSet<>();
+        if (nearbyPlaceNames != null) {
+            for (String n : nearbyPlaceNames) if (n != null && !n.isBlank()) names.add(n.trim());
+        }
+        int included = 0;
+        for (String name : names) {
+            String item = (included == 0 ? "" : ",") + name;
+            int cost = estimateTokens(item);
+            if (tokens + cost > maxTokens) break;
+            sb.append(item);
+            tokens += cost;
+            included++;
+        }
+        return new Prompt(sb.toString(), tokens, included, names.size() - included);
+    }
+
+    Prompt structured(List<String> moods, String weather, Integer budget, String placeSamplesJson, int menuMax) {
+        StringBuilder sb = new StringBuilder()
+                .append("당신은 음식 추천 시스템입니다. 아래 장소 표(places)를 참고하여 최대 ").append(menuMax)
+                .append("개의 메뉴를 제안하고 각 메뉴에 잘 맞는 장소 1~2개를 선택하세요.\n")
+                .append("조건: 날씨=").append(weather).append(", 예산=").append(budget == null ? "?" : budget)
+                .append(", 기분=").append(moods == null ? "" : String.join(",", moods)).append('\n')
+                .append("반드시 아래 JSON Schema에 맞는 하나의 JSON 배열을 출력하세요. 그 외 텍스트 금지.\n")
+                .append("Schema: [{\"menu\":string, \"reason\":string, \"places\":[{\"name\":string}]}]\n")
+                .append("제약: reason 25자 내, menu 중복 금지, places는 표에 있는 name 최대 2개.\n");
+        String tail = "출력:";
+        String header = "places (name|m|cat):\n";
+        int tokens = estimateTokens(sb) + estimateTokens(header) + estimateTokens(tail);
+        List<PlaceRow> rows = rankPlaces(parsePlaces(placeSamplesJson));
+        StringBuilder table = new StringBuilder();
+        int included = 0;
+        for (PlaceRow row : rows) {
+            String distance = row.distanceMeters() == Long.MAX_VALUE ? "?" : String.valueOf(row.distanceMeters());
+            String line = row.name() + '|' + distance + '|' + row.category() + '\n';
+            int cost = estimateTokens(line);
+            if (tokens + cost > maxTokens) break;
+            table.append(line);
+            tokens += cost;
+            included++;
+        }
+        if (included > 0) sb.append(header).append(table);
+        sb.append(tail);
+        return new Prompt(sb.toString(), tokens, included, rows.size() - included);
+    }
+
+    /**
+     * Deduplicated by name (nearest kept), then ordered nearest-first round-robin over categories so a truncated
+     * table still covers as many cuisines as possible.
+     */
+    static List<PlaceRow> rankPlaces(List<PlaceRow> places) {
+        Map<String, PlaceRow> byName = new LinkedHashMap<>();
+        for (PlaceRow p : places) {
+            String key = p.name().replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+            byName.merge(key, p, (a, b) -> a.distanceMeters() <= b.distanceMeters() ? a : b);
+        }
+        Map<String, List<PlaceRow>> byCategory = new LinkedHashMap<>();
+        byName.values().stream()
+                .sorted(Comparator.comparingLong(PlaceRow::distanceMeters))
+                .forEach(p -> byCategory.computeIfAbsent(p.category(), c -> new ArrayList<>()).add(p));
+        List<PlaceRow> out = new ArrayList<>(byName.size());
+        for (int round = 0; out.size() < byName.size(); round++) {
+            for (List<PlaceRow> group : byCategory.values()) {
+                if (round < group.size()) out.add(group.get(round));
+            }
+        }
+        return out;
+    }
+
+    private List<PlaceRow> parsePlaces(String placeSamplesJson) {
+        if (placeSamplesJson == null || placeSamplesJson.isBlank()) return List.of();
+        try {
+            List<PlaceRow> out = new ArrayList<>();
+            for (Map<String, Object> obj : mapper.readValue(placeSamplesJson, SAMPLES)) {
+                Object name = obj.get("name");
+                if (name == null || String.valueOf(name).isBlank()) continue;
+                Object distance = obj.get("distanceMeters");
+                Object category = obj.get("category");
+                out.add(new PlaceRow(String.valueOf(name).replace('|', ' ').trim(),
+                        distance instanceof Number n ? Math.round(n.doubleValue()) : Long.MAX_VALUE,
+                        category == null ? "기타" : String.valueOf(category)));
+            }
+            return out;
+        } catch (Exception e) {
+            return List.of(); // malformed sample: prompt without the table
+        }
+    }
+}
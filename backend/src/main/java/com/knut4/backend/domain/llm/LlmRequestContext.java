@@ -0,0 +1,47 @@
+package com.knut4.backend.domain.llm;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Scheduling attributes of the LLM calls made by the current thread: priority, the user they are made for
+ * (fairness key) and an optional absolute deadline. Callers that are not plain interactive requests wrap their
+ * work with {@link #with}; without a context calls are INTERACTIVE for the authenticated user.
+ */
+public record LlmRequestContext(LlmPriority priority, String user, Instant deadline) {
+
+    private static final ThreadLocal<LlmRequestContext> CURRENT = new ThreadLocal<>();
+
+    /** The context in effect on this thread (user resolved from the security context when not set explicitly). */
+    public static LlmRequestContext current() {
+        LlmRequestContext ctx = CURRENT.get();
+        if (ctx != null && ctx.user() != null) return ctx;
+        return new LlmRequestContext(ctx == null ? LlmPriority.INTERACTIVE : ctx.priority(), currentUsername(),
+                ctx == null ? null : ctx.deadline());
+    }
+
+    /** Run {@code work} with the given priority (keeping the current user / deadline). */
+    public static <T> T with(LlmPriority priority, Supplier<T> work) {
+        LlmRequestContext cur = current();
+        return with(new LlmRequestContext(priority, cur.user(), cur.deadline()), work);
+    }
+
+    /** Run {@code work} under {@code ctx}, e.g. a snapshot taken on the request thread and replayed on a worker. */
+    public static <T> T with(LlmRequestContext ctx, Supplier<T> work) {
+        LlmRequestContext previous = CURRENT.get();
+        CURRENT.set(ctx);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) CURRENT.remove(); else CURRENT.set(previous);
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth.getName() == null ? "anonymous" : auth.getName();
+    }
+}
@@ -0,0 +1,299 @@
+package com.knut4.backend.domain.llm;
+
+import com.knut4.backend.common.resilience.LatencyWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of an LLM server with few parallel slots.
+ * <ul>
+ *   <li>at most {@code maxConcurrent} generations run at once; the rest wait in a bounded queue</li>
+ *   <li>waiters are served by {@link LlmPriority}; within one priority, users are served round-robin so one user's
+ *   burst cannot starve others</li>
+ *   <li>every call has a deadline (the caller's, else the per-priority default); calls whose estimated queue wait +
+ *   generation time would overrun it are not queued, and waiters whose deadline passes give up</li>
+ *   <li>a full queue evicts the newest waiter of the lowest priority below the newcomer, else rejects the newcomer</li>
+ *   <li>service-time history older than {@code latencyStaleAfter} (idle, no generation finished since) is dropped on
+ *   the next submit, so a slow period that made every call "unreachable" cannot keep rejecting calls forever</li>
+ * </ul>
+ * Anything not admitted gets the caller's fallback immediately. Metrics: {@code llm.scheduler.queue.size},
+ * {@code llm.scheduler.active}, {@code llm.scheduler.wait{priority}}, {@code llm.scheduler.rejected{priority, reason}}.
+ */
+public class LlmScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmScheduler.class);
+    private static final int MIN_SAMPLES = 5;
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Map<LlmPriority, Duration> defaultDeadlines;
+    private final MeterRegistry meterRegistry;
+    private final LatencyWindow serviceTimes = new LatencyWindow(100);
+    private final Duration latencyStaleAfter;
+    private final LongSupplier nanoClock;
+    private volatile long lastServiceSample; // nanoClock time the last generation finished
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** priority -> user -> that user's waiters (FIFO); LinkedHashMap order is the round-robin order of users. */
+    private final Map<LlmPriority, LinkedHashMap<String, ArrayDeque<Waiter>>> queues = new EnumMap<>(LlmPriority.class);
+    private int queued;
+    private int running;
+
+    public LlmScheduler(int maxConcurrent, int maxQueue, Map<LlmPriority, Duration> defaultDeadlines, MeterRegistry meterRegistry) {
+        this(maxConcurrent, maxQueue, defaultDeadlines, Duration.ofSeconds(30), meterRegistry);
+    }
+
+    /** @param latencyStaleAfter see {@link #expectedLatency()} (zero = never stale) */
+    public LlmScheduler(int maxConcurrent, int maxQueue, Map<LlmPriority, Duration> defaultDeadlines,
+                        Duration latencyStaleAfter, MeterRegistry meterRegistry) {
+        this(maxConcurrent, maxQueue, defaultDeadlines, latencyStaleAfter, meterRegistry, System::nanoTime);
+    }
+
+    LlmScheduler(int maxConcurrent, int maxQueue, Map<LlmPriority, Duration> defaultDeadlines,
+                 Duration latencyStaleAfter, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.latencyStaleAfter = latencyStaleAfter;
+        this.nanoClock = nanoClock;
+        this.lastServiceSample = nanoClock.getAsLong();
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.defaultDeadlines = defaultDeadlines;
+        this.meterRegistry = meterRegistry;
+        for (LlmPriority p : LlmPriority.values()) queues.put(p, new LinkedHashMap<>());
+        if (meterRegistry != null) {
+            Gauge.builder("llm.scheduler.queue.size", this, LlmScheduler::queueSize)
+                    .description("LLM calls waiting for a generation slot")
+                    .register(meterRegistry);
+            Gauge.builder("llm.scheduler.active", this, LlmScheduler::activeCount)
+                    .description("LLM generations in progress")
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Run {@code call} when a slot is free and the deadline allows it, otherwise return {@code fallback}. */
+    public <T> T submit(LlmRequestContext ctx, Supplier<T> call, Supplier<T> fallback) {
+        Instant deadline = ctx.deadline() != null ? ctx.deadline()
+                : Instant.now().plus(defaultDeadlines.getOrDefault(ctx.priority(), Duration.ofSeconds(30)));
+        Waiter w = new Waiter(ctx.priority(), ctx.user(), System.nanoTime());
+        Waiter evicted = null;
+        String reject = null;
+        boolean granted = false;
+        lock.lock();
+        try {
+            if (historyStale()) serviceTimes.clear(); // admitted without estimate until fresh samples exist
+            Duration remaining = Duration.between(Instant.now(), deadline);
+            if (remaining.isNegative() || remaining.compareTo(estimatedCompletion(ctx.priority())) < 0) {
+                reject = "deadline";
+            } else if (running < maxConcurrent && queued == 0) {
+                running++;
+                granted = true;
+            } else {
+                if (queued >= maxQueue) {
+                    evicted = pollNewestBelow(ctx.priority());
+                    if (evicted == null) reject = "queue_full";
+                }
+                if (reject == null) enqueue(w);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (evicted != null) {
+            evicted.evicted = true;
+            evicted.admission.complete(false);
+        }
+        if (reject != null) return rejected(ctx.priority(), reject, fallback);
+        if (!granted && !awaitSlot(w, deadline)) return rejected(ctx.priority(), w.evicted ? "evicted" : "timeout", fallback);
+        recordWait(w);
+        long start = nanoClock.getAsLong();
+        try {
+            return call.get();
+        } finally {
+            long end = nanoClock.getAsLong();
+            serviceTimes.record(Duration.ofNanos(end - start));
+            lastServiceSample = end;
+            release();
+        }
+    }
+
+    /** @return true once a slot was handed to {@code w}; false if it was evicted or its deadline passed first. */
+    private boolean awaitSlot(Waiter w, Instant deadline) {
+        try {
+            long waitNanos = Math.max(0, Duration.between(Instant.now(), deadline).toNanos());
+            return w.admission.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            boolean removed;
+            lock.lock();
+            try {
+                removed = remove(w);
+            } finally {
+                lock.unlock();
+            }
+            if (!removed && w.admission.getNow(false)) release(); // slot granted just as we gave up: hand it on
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+            while (running < maxConcurrent && queued > 0) {
+                Waiter next = pollNext();
+                running++;
+                next.admission.complete(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Must hold lock. Expected time until a new call of this priority would finish: queue ahead + own generation. */
+    private Duration estimatedCompletion(LlmPriority priority) {
+        Duration typical = serviceTimes.percentile(0.5, MIN_SAMPLES, Duration.ZERO);
+        if (typical.isZero()) return Duration.ZERO; // not enough history to judge: admit
+        int ahead = 0;
+        for (LlmPriority p : LlmPriority.values()) {
+            if (p.compareTo(priority) > 0) break;
+            for (ArrayDeque<Waiter> q : queues.get(p).values()) ahead += q.size();
+        }
+        int busy = running + ahead;
+        long rounds = busy < maxConcurrent ? 0 : (busy - maxConcurrent) / maxConcurrent + 1;
+        return typical.multipliedBy(rounds + 1);
+    }
+
+    /** Must hold lock. Idle and no generation finished for {@code latencyStaleAfter} (zero = never stale). */
+    private boolean historyStale() {
+        return latencyStaleAfter != null && !latencyStaleAfter.isZero() && !latencyStaleAfter.isNegative()
+                && running == 0 && queued == 0
+                && nanoClock.getAsLong() - lastServiceSample >= latencyStaleAfter.toNanos();
+    }
+
+    /** Must hold lock. */
+    private void enqueue(Waiter w) {
+        queues.get(w.priority).computeIfAbsent(w.user, u -> new ArrayDeque<>()).addLast(w);
+        queued++;
+    }
+
+    /** Must hold lock. Highest priority first; within it the user at the head of the rotation, who then moves to the back. */
+    private Waiter pollNext() {
+        for (LlmPriority p : LlmPriority.values()) {
+            LinkedHashMap<String, ArrayDeque<Waiter>> byUser = queues.get(p);
+            Iterator<Map.Entry<String, ArrayDeque<Waiter>>> it = byUser.entrySet().iterator();
+            if (!it.hasNext()) continue;
+            Map.Entry<String, ArrayDeque<Waiter>> head = it.next();
+            Waiter w = head.getValue().pollFirst();
+            it.remove();
+            if (!head.getValue().isEmpty()) byUser.put(head.getKey(), head.getValue()); // rotate to the back
+            queued--;
+            return w;
+        }
+        return null;
+    }
+
+    /** Must hold lock. Newest waiter of the lowest priority strictly below {@code priority}, removed from the queue. */
+    private Waiter pollNewestBelow(LlmPriority priority) {
+        LlmPriority[] all = LlmPriority.values();
+        for (int i = all.length - 1; i >= 0 && all[i].compareTo(priority) > 0; i--) {
+            Waiter newest = null;
+            for (ArrayDeque<Waiter> q : queues.get(all[i]).values()) {
+                Waiter last = q.peekLast();
+                if (last != null && (newest == null || last.enqueuedAt > newest.enqueuedAt)) newest = last;
+            }
+            if (newest != null) {
+                remove(newest);
+                return newest;
+            }
+        }
+        return null;
+    }
+
+    /** Must hold lock. */
+    private boolean remove(Waiter w) {
+        LinkedHashMap<String, ArrayDeque<Waiter>> byUser = queues.get(w.priority);
+        ArrayDeque<Waiter> q = byUser.get(w.user);
+        if (q == null || !q.remove(w)) return false;
+        if (q.isEmpty()) byUser.remove(w.user);
+        queued--;
+        return true;
+    }
+
+    private <T> T rejected(LlmPriority priority, String reason, Supplier<T> fallback) {
+        log.warn("LLM call not admitted (priority={}, reason={}); using fallback", priority, reason);
+        if (meterRegistry != null) {
+            Counter.builder("llm.scheduler.rejected")
+                    .description("LLM calls answered by the fallback without reaching the model")
+                    .tag("priority", priority.name()).tag("reason", reason)
+                    .register(meterRegistry).increment();
+        }
+        return fallback.get();
+    }
+
+    private void recordWait(Waiter w) {
+        if (meterRegistry == null) return;
+        Timer.builder("llm.scheduler.wait")
+                .description("Time LLM calls waited for a generation slot")
+                .tag("priority", w.priority.name())
+                .register(meterRegistry).record(Duration.ofNanos(System.nanoTime() - w.enqueuedAt));
+    }
+
+    /** Calls waiting for a slot (load signal, see DegradationController). */
+    public int queueSize() {
+        lock.lock();
+        try { return queued; } finally { lock.unlock(); }
+    }
+
+    /**
+     * Expected time for a new INTERACTIVE call to finish (queue ahead + typical generation); zero without history.
+     * Also zero while idle with no generation finished for {@code latencyStaleAfter}: the recorded service times then
+     * say nothing about the server now (typically a degraded tier stopped sending calls), so the
+     * DegradationController can step down on the queue signal and normal traffic measures afresh.
+     */
+    public Duration expectedLatency() {
+        lock.lock();
+        try {
+            if (historyStale()) return Duration.ZERO;
+            return estimatedCompletion(LlmPriority.INTERACTIVE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int activeCount() {
+        lock.lock();
+        try { return running; } finally { lock.unlock(); }
+    }
+
+    private static final class Waiter {
+        final LlmPriority priority;
+        final String user;
+        final long enqueuedAt;
+        final CompletableFuture<Boolean> admission = new CompletableFuture<>();
+        volatile boolean evicted;
+
+        Waiter(LlmPriority priority, String user, long enqueuedAt) {
+            this.priority = priority;
+            this.user = user;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.knut4.backend.domain.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Helpers for parsing a completion while it is still being streamed. */
+final class LlmStreamParsing {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private LlmStreamParsing() {}
+
+    /** "content" delta of one OpenAI-compatible stream chunk ({"choices":[{"delta":{"content":".."}}]}); "" if none. */
+    static String deltaContent(String chunk) {
+        try {
+            JsonNode choice = MAPPER.readTree(chunk).path("choices").path(0);
+            JsonNode text = choice.path("delta").path("content");
+            if (text.isMissingNode() || text.isNull()) text = choice.path("text"); // legacy completions format
+            return text.isTextual() ? text.asText() : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    /** Text up to and including the last newline; the trailing line may still be growing. */
+    static String completeLines(CharSequence text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (text.charAt(i) == '\n') return text.subSequence(0, i + 1).toString();
+        }
+        return "";
+    }
+
+    /**
+     * The first JSON array in {@code text}, cut after its last complete top-level element and closed
+     * ({@code [{..},{..},{.. -> [{..},{..}]}); the array as-is when already closed; null while no element is complete.
+     */
+    static String closedArrayPrefix(CharSequence text) {
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '[') { start = i; break; }
+        }
+        if (start < 0) return null;
+        int depth = 0;
+        int lastElementEnd = -1;
+        boolean inString = false;
+        boolean escaped = false;
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (c == '\\') escaped = true;
+                else if (c == '"') inString = false;
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    if (depth == 0) return text.subSequence(start, i + 1).toString(); // outer array closed
+                    if (--depth == 0) lastElementEnd = i;
+                }
+                default -> { }
+            }
+        }
+        return lastElementEnd < 0 ? null : text.subSequence(start, lastElementEnd + 1) + "]";
+    }
+}
@@ -0,0 +1,108 @@
+package com.knut4.backend.domain.llm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable menu catalogue (category, weather affinity, mood tags, price range, common allergens) loaded once from
+ * {@code classpath:menu/knowledge-base.txt}. Backs {@link RuleBasedLlmClient}; lookups are plain in-memory scans.
+ */
+public final class MenuKnowledgeBase {
+
+    static final String RESOURCE = "menu/knowledge-base.txt";
+
+    /** Weather tag matching every weather. */
+    static final String ANY_WEATHER = "any";
+
+    public record MenuProfile(String name, String category, Set<String> weather, Set<String> moods,
+                              int minPrice, int maxPrice, Set<String> allergens, String reason) {}
+
+    private final List<MenuProfile> menus;
+    private final Map<String, MenuProfile> byName;
+
+    MenuKnowledgeBase(List<MenuProfile> menus) {
+        this.menus = List.copyOf(menus);
+        Map<String, MenuProfile> index = new LinkedHashMap<>();
+        for (MenuProfile m : this.menus) index.putIfAbsent(m.name(), m);
+        this.byName = Map.copyOf(index);
+    }
+
+    /** The bundled catalogue (parsed on first use). */
+    public static MenuKnowledgeBase defaults() {
+        return Holder.DEFAULT;
+    }
+
+    public List<MenuProfile> menus() { return menus; }
+
+    public Optional<MenuProfile> find(String menuName) {
+        return menuName == null ? Optional.empty() : Optional.ofNullable(byName.get(menuName.trim()));
+    }
+
+    /**
+     * Coarse weather tags (rain / cold / hot / clear) for a free-text weather value (Korean or English);
+     * empty when nothing is recognised (e.g. the "기본" default).
+     */
+    static Set<String> weatherTags(String weather) {
+        if (weather == null || weather.isBlank()) return Set.of();
+        String w = weather.toLowerCase(Locale.ROOT);
+        Set<String> tags = new java.util.HashSet<>();
+        if (containsAny(w, "비", "소나기", "장마", "흐림", "rain", "shower", "drizzle", "cloud")) tags.add("rain");
+        if (containsAny(w, "눈", "추", "쌀쌀", "겨울", "snow", "cold", "chill", "winter")) tags.add("cold");
+        if (containsAny(w, "더", "폭염", "여름", "hot", "heat", "summer")) tags.add("hot");
+        if (containsAny(w, "맑", "화창", "sun", "clear")) tags.add("clear");
+        return tags;
+    }
+
+    private static boolean containsAny(String text, String... needles) {
+        for (String n : needles) if (text.contains(n)) return true;
+        return false;
+    }
+
+    static MenuKnowledgeBase parse(List<String> lines) {
+        List<MenuProfile> out = new ArrayList<>();
+        for (String raw : lines) {
+            String line = raw.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\\|", -1);
+            if (f.length < 8) throw new IllegalArgumentException("menu knowledge base: expected 8 fields in '" + line + "'");
+            out.add(new MenuProfile(f[0].strip(), f[1].strip(), tags(f[2]), tags(f[3]),
+                    Integer.parseInt(f[4].strip()), Integer.parseInt(f[5].strip()), tags(f[6]), f[7].strip()));
+        }
+        return new MenuKnowledgeBase(out);
+    }
+
+    private static Set<String> tags(String field) {
+        return Arrays.stream(field.split(","))
+                .map(String::strip)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static final class Holder {
+        static final MenuKnowledgeBase DEFAULT = load();
+
+        private static MenuKnowledgeBase load() {
+            try (InputStream in = MenuKnowledgeBase.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+                if (in == null) throw new IllegalStateException("missing classpath resource " + RESOURCE);
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                    return parse(reader.lines().toList());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
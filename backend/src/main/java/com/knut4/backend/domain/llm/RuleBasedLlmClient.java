@@ -0,0 +1,168 @@
+package com.knut4.backend.domain.llm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-process menu engine over {@link MenuKnowledgeBase}: every menu is scored against the request
+ * (weather affinity, mood tags, budget fit, cuisines seen nearby) and the best ones are returned, at most
+ * {@link #MAX_PER_CATEGORY} per category. No I/O, so it answers in microseconds.
+ * <p>
+ * Used as the backend with {@code app.llm.mode=rules}, and by {@code LlmClientConfig} as the fast path when the LLM
+ * is overloaded or slow (see {@link ScheduledLlmClient}, {@link HedgingLlmClient}). The catalogue's allergen lists
+ * also back the recommendation preference filter ({@link #withoutAllergens}), whichever client named the menus.
+ */
+@Component
+@Qualifier("llmBackend")
+@ConditionalOnProperty(name = "app.llm.mode", havingValue = "rules")
+public class RuleBasedLlmClient implements LlmClient {
+
+    static final int MAX_PER_CATEGORY = 2;
+    private static final int MAX_PLACES = 2;
+    private static final TypeReference<List<Map<String, Object>>> SAMPLES = new TypeReference<>() {};
+
+    private final MenuKnowledgeBase knowledgeBase;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public RuleBasedLlmClient() {
+        this(MenuKnowledgeBase.defaults());
+    }
+
+    public RuleBasedLlmClient(MenuKnowledgeBase knowledgeBase) {
+        this.knowledgeBase = knowledgeBase;
+    }
+
+    @Override
+    public List<LlmMenuSuggestion> suggestMenus(List<String> moods, String weather, Integer budget, Double latitude,
+                                                Double longitude, List<String> nearbyPlaceNames, int max) {
+        return rank(moods, weather, budget, nearbyPlaceNames, max).stream()
+                .map(s -> new LlmMenuSuggestion(s.menu().name(), reason(s)))
+                .toList();
+    }
+
+    @Override
+    public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> moods, String weather, Integer budget,
+                                                            Double latitude, Double longitude, String placeSamplesJson,
+                                                            int menuMax) {
+        List<Sample> samples = samples(placeSamplesJson);
+        List<String> names = samples.stream().map(Sample::name).toList();
+        return rank(moods, weather, budget, names, menuMax).stream()
+                .map(s -> new StructuredMenuPlace(s.menu().name(), pickPlaces(s.menu(), samples), reason(s)))
+                .toList();
+    }
+
+    /**
+     * {@code items} without those whose menu the catalogue lists with an allergen {@code excluded} accepts (e.g. a
+     * user's allergy "새우" drops 해물파전); menus the catalogue does not know are kept. Order is kept.
+     */
+    public <T> List<T> withoutAllergens(List<T> items, Function<? super T, String> menu, Predicate<String> excluded) {
+        List<T> out = new ArrayList<>(items.size());
+        for (T item : items) {
+            Set<String> allergens = knowledgeBase.find(menu.apply(item))
+                    .map(MenuKnowledgeBase.MenuProfile::allergens)
+                    .orElse(Set.of());
+            if (allergens.stream().noneMatch(excluded)) out.add(item);
+        }
+        return out;
+    }
+
+    private record Scored(MenuKnowledgeBase.MenuProfile menu, int score, String matchedMood, boolean weatherMatch) {}
+
+    private record Sample(String name, String category, double distance) {}
+
+    private List<Scored> rank(List<String> moods, String weather, Integer budget, List<String> nearbyPlaceNames, int max) {
+        Set<String> weatherTags = MenuKnowledgeBase.weatherTags(weather);
+        List<Scored> scored = new ArrayList<>();
+        for (MenuKnowledgeBase.MenuProfile m : knowledgeBase.menus()) {
+            int score = 0;
+            boolean weatherMatch = false;
+            for (String tag : weatherTags) {
+                if (m.weather().contains(tag)) { weatherMatch = true; break; }
+            }
+            if (weatherMatch) score += 3;
+            else if (!weatherTags.isEmpty() && !m.weather().contains(MenuKnowledgeBase.ANY_WEATHER)) score -= 1;
+            String matchedMood = null;
+            if (moods != null) {
+                for (String mood : moods) {
+                    if (mood == null || mood.isBlank()) continue;
+                    String token = mood.trim();
+                    if (m.moods().stream().anyMatch(token::startsWith)) {
+                        score += 2;
+                        if (matchedMood == null) matchedMood = token;
+                    } else if (m.name().equals(token) || m.category().equals(token)) {
+                        score += 2; // liked dish / cuisine (preference signal appended to moods)
+                    }
+                }
+            }
+            if (budget != null && budget > 0) {
+                if (m.minPrice() > budget) score -= 4;
+                else if (m.maxPrice() <= budget) score += 1;
+            }
+            if (nearbyPlaceNames != null) {
+                for (String place : nearbyPlaceNames) {
+                    if (place != null && (place.contains(m.name()) || place.contains(m.category()))) { score += 1; break; }
+                }
+            }
+            scored.add(new Scored(m, score, matchedMood, weatherMatch));
+        }
+        // stable sort keeps catalogue order among equal scores -> deterministic (cacheable) answers
+        scored.sort(Comparator.comparingInt(Scored::score).reversed());
+        List<Scored> out = new ArrayList<>();
+        Map<String, Integer> perCategory = new HashMap<>();
+        for (Scored s : scored) {
+            if (out.size() >= max) break;
+            if (perCategory.merge(s.menu().category(), 1, Integer::sum) > MAX_PER_CATEGORY) continue;
+            out.add(s);
+        }
+        return out;
+    }
+
+    private static String reason(Scored s) {
+        StringBuilder sb = new StringBuilder(s.menu().reason());
+        if (s.matchedMood() != null) sb.append(" · ").append(s.matchedMood());
+        if (s.weatherMatch()) sb.append(" · 날씨와 어울림");
+        return sb.toString();
+    }
+
+    /** Nearest sampled places whose name mentions the menu, else the nearest of the same category. */
+    private static List<String> pickPlaces(MenuKnowledgeBase.MenuProfile menu, List<Sample> samples) {
+        List<String> byName = new ArrayList<>();
+        List<String> byCategory = new ArrayList<>();
+        for (Sample p : samples) {
+            if (p.name().contains(menu.name())) byName.add(p.name());
+            else if (menu.category().equals(p.category())) byCategory.add(p.name());
+        }
+        byName.addAll(byCategory);
+        return byName.size() > MAX_PLACES ? List.copyOf(byName.subList(0, MAX_PLACES)) : List.copyOf(byName);
+    }
+
+    private List<Sample> samples(String placeSamplesJson) {
+        if (placeSamplesJson == null || placeSamplesJson.isBlank()) return List.of();
+        try {
+            List<Sample> out = new ArrayList<>();
+            for (Map<String, Object> obj : mapper.readValue(placeSamplesJson, SAMPLES)) {
+                Object name = obj.get("name");
+                if (name == null || String.valueOf(name).isBlank()) continue;
+                Object distance = obj.get("distanceMeters");
+                out.add(new Sample(String.valueOf(name), String.valueOf(obj.getOrDefault("category", "")),
+                        distance instanceof Number n ? n.doubleValue() : Double.MAX_VALUE));
+            }
+            out.sort(Comparator.comparingDouble(Sample::distance));
+            return out;
+        } catch (Exception e) {
+            return List.of(); // unusable sample: menus without place picks
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.knut4.backend.domain.llm;
+
+import java.util.List;
+
+/**
+ * Routes every generation through the {@link LlmScheduler} using the caller's {@link LlmRequestContext};
+ * calls that are not admitted are answered straight away by the fast path (e.g. {@link RuleBasedLlmClient}) or,
+ * without one, by {@link LlmFallback} placeholders. Either way the answer is marked as a fallback.
+ */
+public class ScheduledLlmClient implements LlmClient {
+
+    private final LlmClient delegate;
+    private final LlmScheduler scheduler;
+    private final LlmClient fastPath; // may be null
+
+    public ScheduledLlmClient(LlmClient delegate, LlmScheduler scheduler) {
+        this(delegate, scheduler, null);
+    }
+
+    public ScheduledLlmClient(LlmClient delegate, LlmScheduler scheduler, LlmClient fastPath) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.fastPath = fastPath;
+    }
+
+    @Override
+    public List<LlmMenuSuggestion> suggestMenus(List<String> moods, String weather, Integer budget, Double latitude,
+                                                Double longitude, List<String> nearbyPlaceNames, int max) {
+        return scheduler.submit(LlmRequestContext.current(),
+                () -> delegate.suggestMenus(moods, weather, budget, latitude, longitude, nearbyPlaceNames, max),
+                () -> fastPath == null ? LlmFallback.menus(moods, weather, max)
+                        : LlmFallback.of(fastPath.suggestMenus(moods, weather, budget, latitude, longitude, nearbyPlaceNames, max)));
+    }
+
+    @Override
+    public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> moods, String weather, Integer budget,
+                                                            Double latitude, Double longitude, String placeSamplesJson, int menuMax) {
+        return scheduler.submit(LlmRequestContext.current(),
+                () -> delegate.suggestMenusWithPlaces(moods, weather, budget, latitude, longitude, placeSamplesJson, menuMax),
+                () -> fastPath == null ? LlmFallback.structured(moods, weather, menuMax)
+                        : LlmFallback.of(fastPath.suggestMenusWithPlaces(moods, weather, budget, latitude, longitude, placeSamplesJson, menuMax)));
+    }
+}
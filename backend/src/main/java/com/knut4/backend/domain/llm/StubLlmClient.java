@@ -1,5 +1,6 @@
 package com.knut4.backend.domain.llm;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
@@ -7,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@Qualifier("llmBackend") // decorated by the @Primary client from LlmClientConfig
 // Default stub when app.llm.mode not specified OR explicitly set to 'stub'
 @ConditionalOnProperty(name = "app.llm.mode", havingValue = "stub", matchIfMissing = true)
 public class StubLlmClient implements LlmClient {
@@ -0,0 +1,88 @@
+package com.knut4.backend.domain.place;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Caching decorator for any {@link MapProvider}.
+ * Entries are keyed by {@link SearchKey} (normalized keyword + grid cell + radius bucket) and loaded around the cell
+ * center with {@link SearchKey#coverRadiusMeters()}, so callers in the same cell share one upstream call; on read the
+ * entry is re-measured from the caller's origin and places beyond the caller's radius are dropped.
+ * Entries expire after the TTL; entries still being read after the refresh interval are reloaded in the background
+ * while the stale value keeps being served (refresh-ahead of hot keys). Empty results are not cached.
+ * Loads go through the delegate's {@link MapProvider#searchAsync}; concurrent misses for one key share a single load.
+ */
+public class CachingMapProvider implements MapProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingMapProvider.class);
+
+    private final MapProvider delegate;
+    private final double cellDegrees;
+    private final AsyncLoadingCache<SearchKey, List<PlaceResult>> cache;
+
+    public CachingMapProvider(MapProvider delegate,
+                              int cellMeters,
+                              long maxEntries,
+                              Duration ttl,
+                              Duration refreshAfter,
+                              Executor refreshExecutor,
+                              MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cellDegrees = SearchKey.cellDegrees(cellMeters);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .executor(refreshExecutor)
+                .recordStats();
+        if (refreshAfter != null && refreshAfter.compareTo(ttl) < 0) {
+            builder.refreshAfterWrite(refreshAfter);
+        }
+        this.cache = builder.buildAsync((key, ignoredExecutor) -> load(key, SearchPriority.LOW.asContext()));
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "mapSearch");
+        }
+    }
+
+    @Override
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+        SearchKey key = SearchKey.of(keyword, latitude, longitude, radiusMeters, cellDegrees);
+        // foreground misses load with the caller's context (search priority); background refreshes run as LOW
+        // suppressCancel: the load is shared by every waiter on the key, so one caller's timeout must not abort it
+        return Mono.deferContextual(ctx -> Mono.fromFuture(cache.get(key, (k, ignoredExecutor) -> load(k, Context.of(ctx))), true))
+                .map(cached -> PlaceResult.within(cached, latitude, longitude, radiusMeters))
+                .defaultIfEmpty(List.of())
+                .onErrorResume(e -> {
+                    log.warn("map cache load failed for {}: {}", key, e.getMessage());
+                    return Mono.just(List.of());
+                });
+    }
+
+    /** Blocking adapter over {@link #searchAsync}. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters).block();
+        return result == null ? List.of() : result;
+    }
+
+    private CompletableFuture<List<PlaceResult>> load(SearchKey key, Context context) {
+        // completing with null keeps failures/empty answers out of the cache
+        return delegate.searchAsync(key.keyword(), key.centerLatitude(), key.centerLongitude(), key.coverRadiusMeters())
+                .<List<PlaceResult>>mapNotNull(fresh -> fresh.isEmpty() ? null : List.copyOf(fresh))
+                .contextWrite(context)
+                .toFuture();
+    }
+
+    /** Visible for tests / diagnostics. */
+    long estimatedSize() { return cache.synchronous().estimatedSize(); }
+}
@@ -0,0 +1,101 @@
+package com.knut4.backend.domain.place;
+
+import com.knut4.backend.common.resilience.LatencyWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Composite provider querying a primary and a secondary upstream (Naver + Kakao).
+ * <ul>
+ *   <li>hedge mode (default): the secondary is fired only if the primary has not answered within the configured
+ *   percentile of its recent latency (bounded by min/max delay); the first non-empty answer wins.</li>
+ *   <li>fail-over: if the primary answers empty or fails, the secondary is fired immediately.</li>
+ *   <li>merge mode: both are always queried concurrently and results are merged/deduped by {@link PlaceKey}.</li>
+ * </ul>
+ */
+public class HedgingMapProvider implements MapProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingMapProvider.class);
+    private static final int MIN_SAMPLES = 20;
+
+    private final MapProvider primary;
+    private final MapProvider secondary;
+    private final boolean merge;
+    private final double hedgePercentile;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final LatencyWindow primaryLatency = new LatencyWindow(200);
+
+    public HedgingMapProvider(MapProvider primary, MapProvider secondary, boolean merge,
+                              double hedgePercentile, Duration minDelay, Duration maxDelay) {
+        this.primary = primary;
+        this.secondary = secondary;
+        this.merge = merge;
+        this.hedgePercentile = hedgePercentile;
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    @Override
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+        Mono<List<PlaceResult>> first = timedPrimary(keyword, latitude, longitude, radiusMeters);
+        Mono<List<PlaceResult>> second = secondary.searchAsync(keyword, latitude, longitude, radiusMeters)
+                .onErrorReturn(List.of());
+        if (merge) {
+            return Mono.zip(first, second, (a, b) -> dedupe(a, b));
+        }
+        Mono<List<PlaceResult>> primaryShared = first.cache();
+        Duration delay = hedgeDelay();
+        // fire the secondary when the hedge delay passes, or right away when the primary comes back empty
+        Mono<Object> hedgeTrigger = Mono.firstWithSignal(
+                Mono.delay(delay).map(t -> (Object) "hedge"),
+                primaryShared.flatMap(r -> r.isEmpty() ? Mono.just((Object) "failover") : Mono.never()));
+        Mono<List<PlaceResult>> backup = hedgeTrigger
+                .doOnNext(reason -> log.debug("map search '{}' {} -> secondary (delay {} ms)", keyword, reason, delay.toMillis()))
+                .then(second);
+        return Flux.merge(primaryShared.filter(r -> !r.isEmpty()), backup.filter(r -> !r.isEmpty()))
+                .next()
+                .defaultIfEmpty(List.of());
+    }
+
+    /** Blocking adapter over {@link #searchAsync}. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters).block();
+        return result == null ? List.of() : result;
+    }
+
+    Duration hedgeDelay() {
+        Duration d = primaryLatency.percentile(hedgePercentile, MIN_SAMPLES, maxDelay);
+        if (d.compareTo(minDelay) < 0) return minDelay;
+        if (d.compareTo(maxDelay) > 0) return maxDelay;
+        return d;
+    }
+
+    private Mono<List<PlaceResult>> timedPrimary(String keyword, double latitude, double longitude, int radiusMeters) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return primary.searchAsync(keyword, latitude, longitude, radiusMeters)
+                    .onErrorReturn(List.of())
+                    .doOnNext(r -> primaryLatency.record(Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    static List<PlaceResult> dedupe(List<PlaceResult> a, List<PlaceResult> b) {
+        Map<PlaceKey, PlaceResult> merged = new LinkedHashMap<>();
+        for (PlaceResult p : a) merged.merge(PlaceKey.of(p), p, PlaceResult::mergeWith);
+        for (PlaceResult p : b) merged.merge(PlaceKey.of(p), p, PlaceResult::mergeWith);
+        List<PlaceResult> out = new ArrayList<>(merged.values());
+        out.sort(Comparator.comparingDouble(PlaceResult::distanceMeters));
+        return out;
+    }
+}
@@ -1,13 +1,15 @@
 package com.knut4.backend.domain.place;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.util.Comparator;
 import java.util.List;
@@ -17,61 +19,65 @@ import java.util.stream.Collectors;
  * Kakao local search provider implementation.
  * API docs: https://developers.kakao.com/docs/latest/ko/local/dev-guide#search-by-keyword
  */
-// Temporarily disabled per directive to focus solely on Naver integration.
-//@Component
-//@ConditionalOnProperty(name = "app.map.provider", havingValue = "kakao")
-@RequiredArgsConstructor
+// Only used as secondary upstream of the composite provider (see MapProviderConfig / HedgingMapProvider).
+@Component
+@ConditionalOnProperty(name = "app.map.composite.enabled", havingValue = "true")
 public class KakaoMapProvider implements MapProvider {
     private static final Logger log = LoggerFactory.getLogger(KakaoMapProvider.class);
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient; // shared pooled client (see HttpClientConfig), base url = keyword search endpoint
 
-    @Value("${kakao.map.base-url:https://dapi.kakao.com/v2/local/search/keyword.json}")
-    private String baseUrl;
     @Value("${kakao.map.rest-key:}")
     private String restKey;
 
+    public KakaoMapProvider(@Qualifier("kakaoWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
     @Override
-    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
         if (restKey == null || restKey.isBlank()) {
             log.warn("Kakao REST API key not configured; returning empty list");
-            return List.of();
-        }
-        try {
-            WebClient client = webClientBuilder
-                    .defaultHeader("Authorization", "KakaoAK " + restKey)
-                    .build();
-            int size = 5;
-            var mono = client.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path(baseUrl.replace("https://dapi.kakao.com", ""))
-                            .queryParam("query", keyword)
-                            .queryParam("y", latitude)
-                            .queryParam("x", longitude)
-                            .queryParam("radius", Math.min(radiusMeters, 20000)) // kakao max 20000
-                            .queryParam("page", 1)
-                            .queryParam("size", size)
-                            .build())
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(Response.class);
-            Response r = mono.block();
-            if (r == null || r.documents == null) return List.of();
-            return r.documents.stream()
-                    .map(d -> toPlaceResult(d, latitude, longitude))
-                    .sorted(Comparator.comparingDouble(PlaceResult::distanceMeters))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Kakao map search failed: {}", e.getMessage());
-            return List.of();
+            return Mono.just(List.of());
         }
+        int size = 5;
+        return Mono.defer(() -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder
+                                .queryParam("query", keyword)
+                                .queryParam("y", latitude)
+                                .queryParam("x", longitude)
+                                .queryParam("radius", Math.min(radiusMeters, 20000)) // kakao max 20000
+                                .queryParam("page", 1)
+                                .queryParam("size", size)
+                                .build())
+                        .header("Authorization", "KakaoAK " + restKey)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .retrieve()
+                        .bodyToMono(Response.class))
+                .map(r -> r.documents == null ? List.<PlaceResult>of() : r.documents.stream()
+                        .map(d -> toPlaceResult(d, latitude, longitude))
+                        .filter(p -> p != null)
+                        .sorted(Comparator.comparingDouble(PlaceResult::distanceMeters))
+                        .collect(Collectors.toList()))
+                .defaultIfEmpty(List.of())
+                // errors are propagated so the resilience decorator (circuit breaker) can see them
+                .doOnError(e -> log.error("Kakao map search failed: {}", e.getMessage()));
+    }
+
+    /** Blocking adapter over {@link #searchAsync}; failures resolve to an empty list. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters)
+                .onErrorReturn(List.of())
+                .block();
+        return result == null ? List.of() : result;
     }
 
     private PlaceResult toPlaceResult(Document d, double baseLat, double baseLon) {
         try {
             double lat = Double.parseDouble(d.y);
             double lon = Double.parseDouble(d.x);
-            double distance = NaverMapProvider.haversineMeters(baseLat, baseLon, lat, lon); // reuse util
+            double distance = PlaceResult.haversineMeters(baseLat, baseLon, lat, lon);
             String address = d.road_address_name != null && !d.road_address_name.isBlank() ? d.road_address_name : d.address_name;
             return new PlaceResult(d.place_name, lat, lon, address, distance);
         } catch (Exception ex) {
@@ -80,6 +86,8 @@ public class KakaoMapProvider implements MapProvider {
         }
     }
 
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
     static class Response { List<Document> documents; }
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
     static class Document { String place_name; String x; String y; String address_name; String road_address_name; }
 }
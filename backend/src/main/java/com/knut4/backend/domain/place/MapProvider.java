@@ -1,9 +1,14 @@
 package com.knut4.backend.domain.place;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 import java.util.List;
 
 /**
- * Strategy interface for map place search (currently Naver implementation only; Kakao deferred/out of scope).
+ * Strategy interface for map place search (Naver primary; Kakao as optional secondary via {@link HedgingMapProvider}).
+ * Two flavours of the same operation: a reactive {@link #searchAsync} that does not hold a thread while the
+ * upstream call is in flight (preferred when composing many searches), and the blocking {@link #search}.
  */
 public interface MapProvider {
     /**
@@ -15,4 +20,15 @@ public interface MapProvider {
      * @return list of place results (can be empty)
      */
     List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters);
+
+    /**
+     * Non-blocking variant of {@link #search}. HTTP providers implement it natively (and make {@link #search} a
+     * blocking adapter on top); the default wraps the blocking call on the bounded elastic scheduler.
+     * Raw HTTP providers signal upstream failures as errors so {@link ResilientMapProvider} can count them; the
+     * decorators stacked above it (and the blocking method) resolve failures to an empty list.
+     */
+    default Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+        return Mono.fromCallable(() -> search(keyword, latitude, longitude, radiusMeters))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -1,81 +1,128 @@
 package com.knut4.backend.domain.place;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Naver local search. Each search fetches the query under {@code app.map.naver.fetch-variants} rankings in
+ * parallel, merges the pages, keeps only places within {@code radiusMeters} of the origin and sorts by distance.
+ */
 @Component
 @ConditionalOnProperty(name = "app.map.provider", havingValue = "naver", matchIfMissing = true)
-@RequiredArgsConstructor
 public class NaverMapProvider implements MapProvider {
 
     private static final Logger log = LoggerFactory.getLogger(NaverMapProvider.class);
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient webClient; // shared pooled client (see HttpClientConfig), base url = local search endpoint
 
-    @Value("${naver.map.base-url:https://openapi.naver.com/v1/search/local.json}")
-    private String baseUrl;
     @Value("${naver.map.client-id:}")
     private String clientId;
     @Value("${naver.map.client-secret:}")
     private String clientSecret;
 
+    @Value("${app.map.naver.fetch-variants:2}")
+    private int fetchVariants;
+
     private static final Pattern TAG_PATTERN = Pattern.compile("<[^>]+>");
+    static final int DISPLAY = 5; // local search API maximum per call
+    private static final List<String> SORT_VARIANTS = List.of("random", "comment");
+
+    public NaverMapProvider(@Qualifier("naverWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
 
     @Override
-    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
         if (clientId == null || clientId.isBlank() || clientSecret == null || clientSecret.isBlank()) {
             log.warn("Naver API credentials not configured; returning empty list");
-            return List.of();
+            return Mono.just(List.of());
         }
-        try {
-            WebClient client = webClientBuilder
-                    .defaultHeader("X-Naver-Client-Id", clientId)
-                    .defaultHeader("X-Naver-Client-Secret", clientSecret)
-                    .build();
-
-            int display = 5; // fetch up to 5 items for initial recommendation context
-            Mono<LocalSearchResponse> mono = client.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path(baseUrl.replace("https://openapi.naver.com", ""))
-                            .queryParam("query", keyword)
-                            .queryParam("display", display)
-                            .queryParam("start", 1)
-                            .queryParam("sort", "random")
-                            .build())
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(LocalSearchResponse.class);
-
-            LocalSearchResponse response = mono.block();
-            if (response == null || response.items == null) return List.of();
-            return response.items.stream()
-                    .map(item -> toPlaceResult(item, latitude, longitude))
-                    .filter(p -> p != null)
-                    .sorted(Comparator.comparingDouble(PlaceResult::distanceMeters))
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Naver map search failed: {}", e.getMessage());
-            return List.of();
+        List<String> sorts = SORT_VARIANTS.subList(0, fetchVariants());
+        return Mono.defer(() -> {
+                    AtomicReference<Throwable> failure = new AtomicReference<>();
+                    return Flux.fromIterable(sorts)
+                            .flatMap(sort -> fetch(keyword, sort)
+                                    .onErrorResume(e -> { failure.set(e); return Mono.empty(); }), sorts.size())
+                            .collectList()
+                            .flatMap(pages -> pages.isEmpty() && failure.get() != null
+                                    ? Mono.<List<PlaceResult>>error(failure.get()) // every page failed: surface it
+                                    : Mono.just(toPlaceResults(pages, latitude, longitude, radiusMeters)));
+                })
+                // errors are propagated so the resilience decorator (circuit breaker) can see them
+                .doOnError(e -> log.error("Naver map search failed: {}", e.getMessage()));
+    }
+
+    /**
+     * Local search serves at most {@value #DISPLAY} items from {@code start=1} only, so "more pages" means the same
+     * query under another ranking; each variant is one upstream call (see {@link #fetchVariants()}).
+     */
+    private Mono<LocalSearchResponse> fetch(String keyword, String sort) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .queryParam("query", keyword)
+                        .queryParam("display", DISPLAY)
+                        .queryParam("start", 1)
+                        .queryParam("sort", sort)
+                        .build())
+                .header("X-Naver-Client-Id", clientId)
+                .header("X-Naver-Client-Secret", clientSecret)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(LocalSearchResponse.class);
+    }
+
+    /** Upstream calls issued per search (1..{@code SORT_VARIANTS.size()}); the rate limiter budgets by this. */
+    public int fetchVariants() {
+        return Math.max(1, Math.min(fetchVariants, SORT_VARIANTS.size()));
+    }
+
+    /** Blocking adapter over {@link #searchAsync}; failures resolve to an empty list. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters)
+                .onErrorReturn(List.of())
+                .block();
+        return result == null ? List.of() : result;
+    }
+
+    /** Merge pages by {@link PlaceKey}, drop places outside the radius (when given) and sort by distance. */
+    static List<PlaceResult> toPlaceResults(List<LocalSearchResponse> pages, double latitude, double longitude, int radiusMeters) {
+        Map<PlaceKey, PlaceResult> merged = new LinkedHashMap<>();
+        for (LocalSearchResponse page : pages) {
+            if (page == null || page.items == null) continue;
+            for (Item item : page.items) {
+                PlaceResult p = toPlaceResult(item, latitude, longitude);
+                if (p == null || (radiusMeters > 0 && p.distanceMeters() > radiusMeters)) continue;
+                merged.merge(PlaceKey.of(p), p, PlaceResult::mergeWith);
+            }
         }
+        return merged.values().stream()
+                .sorted(Comparator.comparingDouble(PlaceResult::distanceMeters))
+                .collect(Collectors.toList());
     }
 
-    private PlaceResult toPlaceResult(Item item, double baseLat, double baseLon) {
+    private static PlaceResult toPlaceResult(Item item, double baseLat, double baseLon) {
         try {
-            double lon = Double.parseDouble(item.mapx); // mapx(mapy) now WGS84 per 2023 change
-            double lat = Double.parseDouble(item.mapy);
-            double distance = haversineMeters(baseLat, baseLon, lat, lon);
+            double lon = parseCoordinate(item.mapx);
+            double lat = parseCoordinate(item.mapy);
+            double distance = PlaceResult.haversineMeters(baseLat, baseLon, lat, lon);
             String title = sanitize(item.title);
             String address = item.roadAddress != null && !item.roadAddress.isBlank() ? item.roadAddress : item.address;
             return new PlaceResult(title, lat, lon, address, distance);
@@ -85,21 +132,20 @@ public class NaverMapProvider implements MapProvider {
         }
     }
 
+    /** mapx/mapy are WGS84 degrees scaled by 1e7 (e.g. "1269783882"); plain degrees are accepted as well. */
+    static double parseCoordinate(String raw) {
+        double v = Double.parseDouble(raw);
+        return Math.abs(v) > 180 ? v / 1e7 : v;
+    }
+
     static String sanitize(String s) {
         if (s == null) return null;
         return TAG_PATTERN.matcher(s).replaceAll("");
     }
 
-    static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371_000; // meters
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat/2) * Math.sin(dLat/2) + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon/2) * Math.sin(dLon/2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
-        return R * c;
-    }
-
-    // Minimal subset of fields we use from response
+    // Minimal subset of fields we use from response (package-private fields -> field visibility for Jackson)
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
     static class LocalSearchResponse { List<Item> items; }
+    @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
     static class Item { String title; String address; String roadAddress; String mapx; String mapy; }
 }
@@ -0,0 +1,15 @@
+package com.knut4.backend.domain.place;
+
+import java.util.Locale;
+
+/**
+ * Stable identity of a place across queries/providers: normalized name + coordinates rounded to ~100m.
+ * Used to merge duplicates returned by different keyword searches.
+ */
+public record PlaceKey(String name, long latE3, long lonE3) {
+
+    public static PlaceKey of(PlaceResult p) {
+        String n = p.name() == null ? "" : p.name().replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+        return new PlaceKey(n, Math.round(p.latitude() * 1_000), Math.round(p.longitude() * 1_000));
+    }
+}
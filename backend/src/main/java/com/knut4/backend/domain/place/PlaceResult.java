@@ -1,5 +1,8 @@
 package com.knut4.backend.domain.place;
 
+import java.util.Comparator;
+import java.util.List;
+
 /** Simple projection of a place returned by map providers. */
 public record PlaceResult(
         String name,
@@ -7,4 +10,51 @@ public record PlaceResult(
         double longitude,
         String address,
         double distanceMeters
-) {}
+) {
+    /** Same place with distance recomputed against another origin (used when results are shared across nearby callers). */
+    public PlaceResult withDistanceFrom(double originLat, double originLon) {
+        return new PlaceResult(name, latitude, longitude, address, haversineMeters(originLat, originLon, latitude, longitude));
+    }
+
+    /**
+     * {@code places} re-measured from the given origin, without those beyond {@code radiusMeters} (when > 0), nearest
+     * first - a result loaded for a neighbouring origin or a wider radius, narrowed to one caller's search.
+     */
+    public static List<PlaceResult> within(List<PlaceResult> places, double originLat, double originLon, int radiusMeters) {
+        return places.stream()
+                .map(p -> p.withDistanceFrom(originLat, originLon))
+                .filter(p -> radiusMeters <= 0 || p.distanceMeters() <= radiusMeters)
+                .sorted(Comparator.comparingDouble(PlaceResult::distanceMeters))
+                .toList();
+    }
+
+    /** Great-circle distance between two WGS84 coordinates, in meters (shared by all providers). */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double R = 6371_000; // meters
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat/2) * Math.sin(dLat/2) + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon/2) * Math.sin(dLon/2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1-a));
+        return R * c;
+    }
+
+    /** True when every field the recommendation pipeline relies on is present. */
+    public boolean isComplete() {
+        return name != null && !name.isBlank()
+                && address != null && !address.isBlank()
+                && !(latitude == 0 && longitude == 0)
+                && !Double.isNaN(distanceMeters);
+    }
+
+    /** Merge a duplicate of this place, filling missing fields from {@code other} (this instance wins otherwise). */
+    public PlaceResult mergeWith(PlaceResult other) {
+        if (other == null) return this;
+        boolean noCoords = latitude == 0 && longitude == 0;
+        return new PlaceResult(
+                name != null && !name.isBlank() ? name : other.name,
+                noCoords ? other.latitude : latitude,
+                noCoords ? other.longitude : longitude,
+                address != null && !address.isBlank() ? address : other.address,
+                noCoords || Double.isNaN(distanceMeters) ? other.distanceMeters : distanceMeters);
+    }
+}
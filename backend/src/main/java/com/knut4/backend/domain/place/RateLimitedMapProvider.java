@@ -0,0 +1,238 @@
+package com.knut4.backend.domain.place;
+
+import com.knut4.backend.common.resilience.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Quota-aware limiter in front of a single upstream (Naver local search).
+ * <ul>
+ *   <li>per-second rate: token bucket; callers that cannot get a permit wait in a bounded priority queue
+ *   ({@link SearchPriority#HIGH} per-menu lookups are served before {@link SearchPriority#LOW} sampling)</li>
+ *   <li>waiters give up after {@code maxWait}; when the queue is full the lowest priority waiter is dropped</li>
+ *   <li>daily quota: counted per calendar day (Asia/Seoul, matching Naver's reset); exhausted -> reject</li>
+ * </ul>
+ * Rejected searches resolve to an empty list (same as an upstream failure) and are counted in
+ * {@code map.ratelimit.rejected{reason}}; time spent queued is recorded in {@code map.ratelimit.queued}.
+ */
+public class RateLimitedMapProvider implements MapProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitedMapProvider.class);
+    private static final ZoneId QUOTA_ZONE = ZoneId.of("Asia/Seoul");
+
+    private final MapProvider delegate;
+    private final String upstream;
+    private final TokenBucket bucket;
+    private final long dailyQuota;
+    private final int maxQueue;
+    private final Duration maxWait;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.seq));
+    private final AtomicLong seq = new AtomicLong();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService scheduler;
+
+    private LocalDate quotaDay;
+    private long usedToday;
+
+    public RateLimitedMapProvider(MapProvider delegate, String upstream, double permitsPerSecond, int burst,
+                                  long dailyQuota, int maxQueue, Duration maxWait, MeterRegistry meterRegistry) {
+        this(delegate, upstream, permitsPerSecond, burst, dailyQuota, maxQueue, maxWait, meterRegistry, Clock.system(QUOTA_ZONE));
+    }
+
+    RateLimitedMapProvider(MapProvider delegate, String upstream, double permitsPerSecond, int burst,
+                           long dailyQuota, int maxQueue, Duration maxWait, MeterRegistry meterRegistry, Clock clock) {
+        this.delegate = delegate;
+        this.upstream = upstream;
+        this.bucket = new TokenBucket(permitsPerSecond, burst);
+        this.dailyQuota = dailyQuota;
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.quotaDay = LocalDate.now(clock);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ratelimit-" + upstream);
+            t.setDaemon(true);
+            return t;
+        });
+        if (meterRegistry != null) {
+            Gauge.builder("map.ratelimit.queue.size", queue, q -> q.size())
+                    .tag("upstream", upstream)
+                    .description("Map searches waiting for a rate limit permit")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+        return Mono.deferContextual(ctx -> {
+            SearchPriority priority = SearchPriority.from(ctx);
+            return acquire(priority).flatMap(granted -> granted
+                    ? delegate.searchAsync(keyword, latitude, longitude, radiusMeters)
+                    : Mono.just(List.<PlaceResult>of()));
+        });
+    }
+
+    /** Blocking adapter over {@link #searchAsync}. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters)
+                .onErrorReturn(List.of())
+                .block();
+        return result == null ? List.of() : result;
+    }
+
+    private Mono<Boolean> acquire(SearchPriority priority) {
+        return Mono.create(sink -> {
+            Waiter evicted = null;
+            String rejectReason = null;
+            boolean granted = false;
+            lock.lock();
+            try {
+                if (!quotaAvailable()) {
+                    rejectReason = "quota";
+                } else if (queue.isEmpty() && bucket.tryTake()) {
+                    usedToday++;
+                    granted = true;
+                } else {
+                    if (queue.size() >= maxQueue) {
+                        Waiter lowest = queue.stream().max(queue.comparator()).orElse(null);
+                        if (lowest != null && lowest.priority.compareTo(priority) > 0) {
+                            queue.remove(lowest);
+                            evicted = lowest;
+                        } else {
+                            rejectReason = "queue_full";
+                        }
+                    }
+                    if (rejectReason == null) {
+                        Waiter w = new Waiter(priority, seq.incrementAndGet(), sink, System.nanoTime());
+                        queue.add(w);
+                        sink.onCancel(() -> remove(w));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (evicted != null) reject(evicted.sink, evicted.priority, "queue_full");
+            if (granted) {
+                recordQueued(priority, 0);
+                sink.success(true);
+            } else if (rejectReason != null) {
+                reject(sink, priority, rejectReason);
+            } else {
+                scheduleDrain();
+            }
+        });
+    }
+
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) return;
+        long delay = Math.max(1_000_000L, Math.min(bucket.nanosUntilNext(), maxWait.toNanos()));
+        scheduler.schedule(this::drain, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        long now = System.nanoTime();
+        List<Waiter> expired = new java.util.ArrayList<>();
+        List<Waiter> grantedWaiters = new java.util.ArrayList<>();
+        boolean quotaExhausted = false;
+        lock.lock();
+        try {
+            queue.removeIf(w -> {
+                if (now - w.enqueuedAt > maxWait.toNanos()) { expired.add(w); return true; }
+                return false;
+            });
+            while (!queue.isEmpty()) {
+                if (!quotaAvailable()) { quotaExhausted = true; break; }
+                if (!bucket.tryTake()) break;
+                usedToday++;
+                grantedWaiters.add(queue.poll());
+            }
+            if (quotaExhausted) {
+                expired.addAll(queue);
+                queue.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Waiter w : expired) reject(w.sink, w.priority, quotaExhausted ? "quota" : "timeout");
+        for (Waiter w : grantedWaiters) {
+            recordQueued(w.priority, now - w.enqueuedAt);
+            w.sink.success(true);
+        }
+        boolean pending;
+        lock.lock();
+        try { pending = !queue.isEmpty(); } finally { lock.unlock(); }
+        if (pending) scheduleDrain();
+    }
+
+    private void remove(Waiter w) {
+        lock.lock();
+        try { queue.remove(w); } finally { lock.unlock(); }
+    }
+
+    /** Must hold lock. Resets the counter when the quota day rolls over. */
+    private boolean quotaAvailable() {
+        LocalDate today = LocalDate.now(clock);
+        if (!today.equals(quotaDay)) {
+            quotaDay = today;
+            usedToday = 0;
+        }
+        return dailyQuota <= 0 || usedToday < dailyQuota;
+    }
+
+    private void reject(MonoSink<Boolean> sink, SearchPriority priority, String reason) {
+        log.warn("{} search rejected by rate limiter (priority={}, reason={})", upstream, priority, reason);
+        if (meterRegistry != null) {
+            Counter.builder("map.ratelimit.rejected")
+                    .description("Map searches rejected by the upstream rate limiter")
+                    .tag("upstream", upstream).tag("priority", priority.name()).tag("reason", reason)
+                    .register(meterRegistry).increment();
+        }
+        sink.success(false);
+    }
+
+    private void recordQueued(SearchPriority priority, long nanos) {
+        if (meterRegistry == null) return;
+        Timer.builder("map.ratelimit.queued")
+                .description("Time map searches waited for a rate limit permit")
+                .tag("upstream", upstream).tag("priority", priority.name())
+                .register(meterRegistry).record(Duration.ofNanos(nanos));
+    }
+
+    /** Permits used in the current quota day (diagnostics / tests). */
+    long usedToday() {
+        lock.lock();
+        try { return usedToday; } finally { lock.unlock(); }
+    }
+
+    public void shutdown() { scheduler.shutdownNow(); }
+
+    private record Waiter(SearchPriority priority, long seq, MonoSink<Boolean> sink, long enqueuedAt) {}
+}
@@ -0,0 +1,74 @@
+package com.knut4.backend.domain.place;
+
+import com.knut4.backend.common.resilience.Bulkhead;
+import com.knut4.backend.common.resilience.CircuitBreaker;
+import com.knut4.backend.common.resilience.ResilienceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-upstream isolation: a bulkhead caps concurrent searches and a circuit breaker (error / slow-call rate) stops
+ * calling an unhealthy upstream for a while. Short-circuited, timed out and failed searches all resolve to an
+ * empty list right away, so callers fall through to their "no places" path instead of waiting on a dead upstream.
+ */
+public class ResilientMapProvider implements MapProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientMapProvider.class);
+
+    private final MapProvider delegate;
+    private final String upstream;
+    private final ResilienceRegistry registry;
+    private final CircuitBreaker breaker;
+    private final Bulkhead bulkhead;
+    private final Duration callTimeout;
+
+    public ResilientMapProvider(MapProvider delegate, String upstream, ResilienceRegistry registry, Duration callTimeout) {
+        this.delegate = delegate;
+        this.upstream = upstream;
+        this.registry = registry;
+        this.breaker = registry.circuitBreaker(upstream);
+        this.bulkhead = registry.bulkhead(upstream);
+        this.callTimeout = callTimeout;
+    }
+
+    @Override
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                registry.rejected(upstream, "bulkhead_full");
+                return Mono.just(List.<PlaceResult>of());
+            }
+            if (!breaker.tryAcquirePermission()) {
+                bulkhead.release();
+                registry.rejected(upstream, "circuit_open");
+                log.debug("{} circuit open; skipping search '{}'", upstream, keyword);
+                return Mono.just(List.<PlaceResult>of());
+            }
+            long start = System.nanoTime();
+            return delegate.searchAsync(keyword, latitude, longitude, radiusMeters)
+                    .timeout(callTimeout)
+                    .doOnSuccess(r -> breaker.onSuccess(Duration.ofNanos(System.nanoTime() - start)))
+                    .doOnError(e -> breaker.onError(Duration.ofNanos(System.nanoTime() - start)))
+                    .doOnCancel(breaker::onIgnored)
+                    .doFinally(signal -> bulkhead.release())
+                    .onErrorResume(e -> {
+                        log.warn("{} map search '{}' failed: {}", upstream, keyword, e.toString());
+                        return Mono.just(List.of());
+                    })
+                    .defaultIfEmpty(List.of());
+        });
+    }
+
+    /** Blocking adapter over {@link #searchAsync}. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters).block();
+        return result == null ? List.of() : result;
+    }
+
+    CircuitBreaker.State circuitState() { return breaker.state(); }
+}
@@ -0,0 +1,51 @@
+package com.knut4.backend.domain.place;
+
+import java.util.Locale;
+
+/**
+ * Normalized identity of a place search: keyword + grid cell of the coordinate + radius bucket.
+ * Searches from nearby points (same building / block) with the same keyword map to the same key,
+ * which lets caching and request coalescing share one upstream call.
+ */
+public record SearchKey(String keyword, long latCell, long lonCell, int radiusBucket, double cellDegrees) {
+
+    static final int RADIUS_BUCKET_METERS = 500;
+
+    public static SearchKey of(String keyword, double latitude, double longitude, int radiusMeters, double cellDegrees) {
+        return new SearchKey(
+                normalizeKeyword(keyword),
+                (long) Math.floor(latitude / cellDegrees),
+                (long) Math.floor(longitude / cellDegrees),
+                bucketRadius(radiusMeters),
+                cellDegrees);
+    }
+
+    /** Convert a cell size in meters into degrees (latitude based; good enough for a city-scale grid). */
+    public static double cellDegrees(int cellMeters) {
+        return cellMeters / 111_320.0;
+    }
+
+    public double centerLatitude() { return (latCell + 0.5) * cellDegrees; }
+
+    public double centerLongitude() { return (lonCell + 0.5) * cellDegrees; }
+
+    /**
+     * Radius to search around the cell center so the result covers the radius bucket of any origin inside the
+     * cell (bucket + half the cell diagonal); 0 when the search has no radius. Callers re-filter with their own
+     * origin and radius.
+     */
+    public int coverRadiusMeters() {
+        if (radiusBucket == 0) return 0;
+        return radiusBucket + (int) Math.ceil(cellDegrees * 111_320.0 * Math.sqrt(0.5));
+    }
+
+    static String normalizeKeyword(String keyword) {
+        if (keyword == null) return "";
+        return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    static int bucketRadius(int radiusMeters) {
+        if (radiusMeters <= 0) return 0;
+        return ((radiusMeters + RADIUS_BUCKET_METERS - 1) / RADIUS_BUCKET_METERS) * RADIUS_BUCKET_METERS;
+    }
+}
@@ -0,0 +1,28 @@
+package com.knut4.backend.domain.place;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Priority of a map search when upstream quota is scarce. Carried in the Reactor {@link Context} of
+ * {@link MapProvider#searchAsync} calls so decorators can see it without changing the MapProvider signature:
+ * <pre>mapProvider.searchAsync(...).contextWrite(SearchPriority.HIGH.asContext())</pre>
+ * Calls without a priority in context (incl. the blocking {@code search}) are {@link #NORMAL}.
+ */
+public enum SearchPriority {
+    /** Per-menu place lookups whose results are shown to the user. */
+    HIGH,
+    NORMAL,
+    /** Exploratory sampling and background cache refresh. */
+    LOW;
+
+    private static final Object CONTEXT_KEY = SearchPriority.class;
+
+    public Context asContext() {
+        return Context.of(CONTEXT_KEY, this);
+    }
+
+    public static SearchPriority from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, NORMAL);
+    }
+}
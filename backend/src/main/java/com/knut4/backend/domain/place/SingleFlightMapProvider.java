@@ -0,0 +1,80 @@
+package com.knut4.backend.domain.place;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-flight request coalescing: concurrent searches with the same {@link SearchKey} (keyword, grid cell, radius
+ * bucket) share one delegate call and its result. Independent of caching - it only dedupes calls that overlap in
+ * time, so it is useful with or without {@link CachingMapProvider} underneath.
+ * The shared call is normalized to the key (cell center, {@link SearchKey#coverRadiusMeters()}) rather than the
+ * first caller's query, so it covers every caller of the key; each caller gets it re-measured from its own origin
+ * and cut to its own radius. Collapsed calls are counted in {@code map.search.singleflight{role=collapsed}}.
+ */
+public class SingleFlightMapProvider implements MapProvider {
+
+    private final MapProvider delegate;
+    private final double cellDegrees;
+    private final ConcurrentMap<SearchKey, Mono<List<PlaceResult>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final Counter leaderCounter;
+    private final Counter collapsedCounter;
+
+    public SingleFlightMapProvider(MapProvider delegate, int cellMeters, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cellDegrees = SearchKey.cellDegrees(cellMeters);
+        this.leaderCounter = meterRegistry == null ? null : Counter.builder("map.search.singleflight")
+                .description("Map searches by single-flight role (leader = upstream call, collapsed = shared result)")
+                .tag("role", "leader").register(meterRegistry);
+        this.collapsedCounter = meterRegistry == null ? null : Counter.builder("map.search.singleflight")
+                .description("Map searches by single-flight role (leader = upstream call, collapsed = shared result)")
+                .tag("role", "collapsed").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+        SearchKey key = SearchKey.of(keyword, latitude, longitude, radiusMeters, cellDegrees);
+        return Mono.defer(() -> {
+            AtomicBoolean leader = new AtomicBoolean(false);
+            Mono<List<PlaceResult>> shared = inFlight.computeIfAbsent(key, k -> {
+                leader.set(true);
+                return newFlight(k);
+            });
+            if (leader.get()) {
+                if (leaderCounter != null) leaderCounter.increment();
+            } else {
+                collapsed.incrementAndGet();
+                if (collapsedCounter != null) collapsedCounter.increment();
+            }
+            return shared.map(list -> PlaceResult.within(list, latitude, longitude, radiusMeters));
+        });
+    }
+
+    /** Blocking adapter over {@link #searchAsync}. */
+    @Override
+    public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+        List<PlaceResult> result = searchAsync(keyword, latitude, longitude, radiusMeters).block();
+        return result == null ? List.of() : result;
+    }
+
+    private Mono<List<PlaceResult>> newFlight(SearchKey key) {
+        @SuppressWarnings("unchecked")
+        Mono<List<PlaceResult>>[] self = new Mono[1];
+        self[0] = delegate.searchAsync(key.keyword(), key.centerLatitude(), key.centerLongitude(), key.coverRadiusMeters())
+                .onErrorReturn(List.of())
+                .defaultIfEmpty(List.of())
+                .doFinally(signal -> inFlight.remove(key, self[0]))
+                .cache();
+        return self[0];
+    }
+
+    /** Number of calls answered by joining an in-flight search (diagnostics / tests). */
+    public long collapsedCount() { return collapsed.get(); }
+}
@@ -2,47 +2,46 @@ package com.knut4.backend.domain.preference.controller;
 
 import com.knut4.backend.domain.preference.entity.Preference;
 import com.knut4.backend.domain.preference.repository.PreferenceRepository;
-import com.knut4.backend.domain.user.UserRepository;
+import com.knut4.backend.domain.preference.service.PreferenceMatcherCache;
+import com.knut4.backend.domain.user.UserContext;
+import com.knut4.backend.domain.user.UserContextResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
-
 @RestController
 @RequestMapping("/api/private/preferences")
 @RequiredArgsConstructor
 public class PreferenceController {
     private final PreferenceRepository preferenceRepository;
-    private final UserRepository userRepository;
+    private final UserContextResolver userContexts;
+    private final PreferenceMatcherCache preferenceMatchers;
 
     @GetMapping
     public ResponseEntity<PreferenceDto> get(Authentication auth) {
-        var pref = currentPreference(auth);
+        var pref = userContexts.resolve(auth).preference();
         return ResponseEntity.ok(pref.map(PreferenceDto::from).orElse(null));
     }
 
     @PostMapping
     public ResponseEntity<PreferenceDto> upsert(@RequestBody PreferenceDto dto, Authentication auth) {
-        if (auth == null || !(auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User u)) {
+        UserContext caller = userContexts.resolve(auth);
+        if (caller.username() == null) {
             return ResponseEntity.status(401).build();
         }
-        var user = userRepository.findByUsername(u.getUsername()).orElseThrow();
-        Preference p = preferenceRepository.findByUser(user).orElseGet(() -> { Preference np = new Preference(); np.setUser(user); return np; });
+        var user = caller.user().orElseThrow();
+        Preference p = caller.preference().orElseGet(() -> { Preference np = new Preference(); np.setUser(user); return np; });
         p.setLikes(dto.likes());
         p.setDislikes(dto.dislikes());
         p.setAllergies(dto.allergies());
         p.setDietTypes(dto.dietTypes());
         p.setNotes(dto.notes());
-        preferenceRepository.save(p);
+        p = preferenceRepository.save(p);
+        caller.updatePreference(p);
+        preferenceMatchers.invalidate(p);
         return ResponseEntity.ok(PreferenceDto.from(p));
     }
-
-    private Optional<Preference> currentPreference(Authentication auth) {
-        if (auth == null || !(auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User u)) return Optional.empty();
-        return userRepository.findByUsername(u.getUsername()).flatMap(preferenceRepository::findByUser);
-    }
 }
 
 record PreferenceDto(Long id, String likes, String dislikes, String allergies, String dietTypes, String notes) {
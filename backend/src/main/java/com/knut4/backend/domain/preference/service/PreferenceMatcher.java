@@ -0,0 +1,123 @@
+package com.knut4.backend.domain.preference.service;
+
+import com.knut4.backend.domain.preference.entity.Preference;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Aho–Corasick automaton over a user's excluded terms (dislikes + allergies): one scan of a text finds whether any
+ * term occurs in it, however many terms there are. Terms and texts are compared NFC-normalized (composed Hangul),
+ * lower-cased and without whitespace, so "새우 튀김" matches the term "새우튀김" and vice versa.
+ * <p>
+ * Immutable once compiled; {@link PreferenceMatcherCache} keeps one per preference version.
+ */
+public final class PreferenceMatcher {
+
+    public static final PreferenceMatcher EMPTY = new PreferenceMatcher(List.of());
+
+    private static final class Node {
+        final Map<Character, Node> next = new HashMap<>();
+        Node fail;
+        String output; // a term ending here, directly or via the fail chain
+    }
+
+    private final Node root = new Node();
+    private final int terms;
+
+    private PreferenceMatcher(Collection<String> rawTerms) {
+        int count = 0;
+        for (String raw : rawTerms) {
+            String term = normalize(raw);
+            if (term.isEmpty()) continue;
+            Node node = root;
+            for (int i = 0; i < term.length(); i++) node = node.next.computeIfAbsent(term.charAt(i), c -> new Node());
+            if (node.output == null) {
+                node.output = raw.strip();
+                count++;
+            }
+        }
+        this.terms = count;
+        linkFailures();
+    }
+
+    public static PreferenceMatcher compile(Collection<String> terms) {
+        return terms == null || terms.isEmpty() ? EMPTY : new PreferenceMatcher(terms);
+    }
+
+    /** Dislikes and allergies of {@code preference} (null = nothing excluded). */
+    public static PreferenceMatcher of(Preference preference) {
+        if (preference == null) return EMPTY;
+        List<String> terms = new ArrayList<>(List.of(preference.dislikeArray()));
+        terms.addAll(List.of(preference.allergyArray()));
+        return compile(terms);
+    }
+
+    public boolean isEmpty() { return terms == 0; }
+
+    /** The first excluded term found in {@code text} (as configured), or null. */
+    public String firstMatch(CharSequence text) {
+        if (terms == 0 || text == null) return null;
+        String normalized = normalize(text);
+        Node node = root;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            while (node != root && !node.next.containsKey(c)) node = node.fail;
+            node = node.next.getOrDefault(c, root);
+            if (node.output != null) return node.output;
+        }
+        return null;
+    }
+
+    public boolean matches(CharSequence text) {
+        return firstMatch(text) != null;
+    }
+
+    /** {@code items} whose text contains none of the terms, order kept (menu suggestions, place names, ...). */
+    public <T> List<T> reject(List<T> items, Function<? super T, ? extends CharSequence> text) {
+        if (terms == 0) return items;
+        List<T> out = new ArrayList<>(items.size());
+        for (T item : items) if (!matches(text.apply(item))) out.add(item);
+        return out;
+    }
+
+    /** Breadth-first, so every fail target (a shorter suffix) is complete before it is used. */
+    private void linkFailures() {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> e : node.next.entrySet()) {
+                char c = e.getKey();
+                Node child = e.getValue();
+                Node f = node.fail;
+                while (f != root && !f.next.containsKey(c)) f = f.fail;
+                Node target = f.next.get(c);
+                child.fail = target != null ? target : root;
+                if (child.output == null) child.output = child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    static String normalize(CharSequence text) {
+        if (text == null) return "";
+        String s = text.toString();
+        if (!Normalizer.isNormalized(s, Normalizer.Form.NFC)) s = Normalizer.normalize(s, Normalizer.Form.NFC);
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!Character.isWhitespace(c)) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+}
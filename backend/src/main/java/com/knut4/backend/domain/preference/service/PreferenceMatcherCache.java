@@ -0,0 +1,42 @@
+package com.knut4.backend.domain.preference.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.knut4.backend.domain.preference.entity.Preference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * Compiled {@link PreferenceMatcher} per stored preference (one per user), reused until the preference changes:
+ * entries carry the preference's {@code updatedAt} and are rebuilt when it differs, and
+ * {@code PreferenceController.upsert} drops the entry right after a write.
+ */
+@Component
+public class PreferenceMatcherCache {
+
+    private record Entry(OffsetDateTime version, PreferenceMatcher matcher) {}
+
+    private final Cache<Long, Entry> cache;
+
+    public PreferenceMatcherCache(@Value("${app.preference.matcher.cache-size:10000}") long maxEntries) {
+        this.cache = Caffeine.newBuilder().maximumSize(Math.max(1, maxEntries)).build();
+    }
+
+    /** Matcher over the dislikes and allergies of {@code preference}; {@link PreferenceMatcher#EMPTY} for null. */
+    public PreferenceMatcher forPreference(Preference preference) {
+        if (preference == null) return PreferenceMatcher.EMPTY;
+        if (preference.getId() == null) return PreferenceMatcher.of(preference); // not stored yet: nothing to key on
+        Entry cached = cache.getIfPresent(preference.getId());
+        if (cached != null && Objects.equals(cached.version(), preference.getUpdatedAt())) return cached.matcher();
+        PreferenceMatcher matcher = PreferenceMatcher.of(preference);
+        cache.put(preference.getId(), new Entry(preference.getUpdatedAt(), matcher));
+        return matcher;
+    }
+
+    public void invalidate(Preference preference) {
+        if (preference != null && preference.getId() != null) cache.invalidate(preference.getId());
+    }
+}
@@ -0,0 +1,22 @@
+package com.knut4.backend.domain.recommendation;
+
+import java.util.Locale;
+
+/** How the plain menu generation and the structured (menu + places) generation are issued ({@code app.llm.call-mode}). */
+enum LlmCallMode {
+    /** One structured generation; the plain menu list is derived from it (plain call only if it comes back empty). */
+    SINGLE,
+    /** Both generations at once on the recommendation executor (LLM server with parallel slots). */
+    PARALLEL,
+    /** Plain generation, then structured generation (previous behaviour). */
+    SEQUENTIAL;
+
+    static LlmCallMode from(String value) {
+        if (value == null || value.isBlank()) return SINGLE;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return SINGLE;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.knut4.backend.domain.recommendation;
+
+import com.knut4.backend.common.resilience.Deadline;
+import com.knut4.backend.domain.llm.LlmClient;
+import com.knut4.backend.domain.llm.LlmFallback;
+import com.knut4.backend.domain.llm.LlmMenuSuggestion;
+import com.knut4.backend.domain.llm.LlmRequestContext;
+import com.knut4.backend.domain.llm.StructuredMenuPlace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Issues the LLM generations for one recommendation according to {@link LlmCallMode}.
+ * {@code structured} is null when the structured generation failed or was not usable; {@code suggestions} is
+ * always non-null. {@code degraded} is set when the menus used come from {@link LlmFallback} placeholders (LLM not
+ * reachable, not admitted or out of time) rather than the model.
+ * <p>
+ * In PARALLEL mode the structured generation runs on {@code executor}, which must not be the pool the caller itself
+ * runs on (request threads and {@code streamExecutor} submit to {@code recommendationExecutor}); the caller waits
+ * for it at most until the stage deadline.
+ */
+class MenuSuggestionGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuSuggestionGenerator.class);
+
+    record Result(List<LlmMenuSuggestion> suggestions, List<StructuredMenuPlace> structured, boolean degraded) {
+
+        Result(List<LlmMenuSuggestion> suggestions, List<StructuredMenuPlace> structured) {
+            this(suggestions, structured, LlmFallback.isFallback(suggestions)
+                    || (structured != null && LlmFallback.isFallback(structured)));
+        }
+    }
+
+    /** Context shared by both generations. */
+    record Input(List<String> moods, String weather, Integer budget, Double latitude, Double longitude,
+                 List<String> nearbyPlaceNames, String placeSamplesJson, int max) {}
+
+    private final LlmClient llmClient;
+    private final LlmCallMode mode;
+    private final Executor executor;
+
+    MenuSuggestionGenerator(LlmClient llmClient, LlmCallMode mode, Executor executor) {
+        this.llmClient = llmClient;
+        this.mode = mode;
+        this.executor = executor;
+    }
+
+    LlmCallMode mode() { return mode; }
+
+    /** @param deadline end of the LLM stage (null = unbounded); a structured result not ready by then is dropped */
+    Result generate(Input in, Deadline deadline) {
+        return switch (mode) {
+            case SINGLE -> single(in);
+            case PARALLEL -> parallel(in, deadline);
+            case SEQUENTIAL -> new Result(plain(in), structured(in));
+        };
+    }
+
+    private Result single(Input in) {
+        List<StructuredMenuPlace> structured = structured(in);
+        if (structured == null) {
+            // nothing usable from the structured generation: one plain call as fallback
+            return new Result(plain(in), null);
+        }
+        List<LlmMenuSuggestion> suggestions = structured.stream()
+                .map(s -> new LlmMenuSuggestion(s.menu(), s.reason() == null || s.reason().isBlank() ? "추천" : s.reason()))
+                .toList();
+        return new Result(suggestions, structured, LlmFallback.isFallback(structured));
+    }
+
+    private Result parallel(Input in, Deadline deadline) {
+        CompletableFuture<List<StructuredMenuPlace>> structuredFuture;
+        try {
+            LlmRequestContext ctx = LlmRequestContext.current(); // priority / user for the LLM scheduler
+            structuredFuture = CompletableFuture.supplyAsync(() -> LlmRequestContext.with(ctx, () -> structured(in)), executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("recommendation executor saturated; running LLM calls sequentially");
+            return new Result(plain(in), structured(in));
+        }
+        List<LlmMenuSuggestion> suggestions = plain(in); // caller thread runs the other generation meanwhile
+        List<StructuredMenuPlace> structured;
+        try {
+            structured = deadline == null ? structuredFuture.join()
+                    : structuredFuture.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("structured LLM generation not done by the deadline; continuing without it");
+            structuredFuture.cancel(false);
+            structured = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            structured = null;
+        } catch (Exception e) {
+            structured = null;
+        }
+        return new Result(suggestions, structured);
+    }
+
+    private List<LlmMenuSuggestion> plain(Input in) {
+        return llmClient.suggestMenus(in.moods(), in.weather(), in.budget(), in.latitude(), in.longitude(),
+                in.nearbyPlaceNames(), in.max());
+    }
+
+    private List<StructuredMenuPlace> structured(Input in) {
+        try {
+            List<StructuredMenuPlace> out = llmClient.suggestMenusWithPlaces(in.moods(), in.weather(), in.budget(),
+                    in.latitude(), in.longitude(), in.placeSamplesJson(), in.max());
+            return out == null || out.isEmpty() ? null : out;
+        } catch (Exception e) {
+            log.warn("structured LLM generation failed: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.knut4.backend.domain.recommendation;
+
+import com.knut4.backend.common.resilience.Deadline;
+import com.knut4.backend.domain.place.MapProvider;
+import com.knut4.backend.domain.place.PlaceKey;
+import com.knut4.backend.domain.place.PlaceResult;
+import com.knut4.backend.domain.place.SearchPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Prefetches a broad nearby place sample used as LLM context.
+ * Stage 1 runs the generic + mood-derived keyword searches concurrently and keeps the full results, merging
+ * duplicates across queries by {@link PlaceKey}. Stage 2 goes back to the provider only for sampled places that
+ * are missing fields. Searches are composed with {@link MapProvider#searchAsync} so no thread is held per call;
+ * each stage waits at most its stage timeout (shortened to the request {@link Deadline}) and whatever has come back
+ * when it expires is used.
+ */
+class NearbyPlaceSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(NearbyPlaceSampler.class);
+    static final int SAMPLE_RADIUS = 1500;
+    static final int MAX_SAMPLE = 20;
+
+    private final MapProvider mapProvider;
+    private final Duration stageTimeout;
+
+    NearbyPlaceSampler(MapProvider mapProvider, Duration stageTimeout) {
+        this.mapProvider = mapProvider;
+        this.stageTimeout = stageTimeout;
+    }
+
+    /** Without a request deadline: each stage gets its full stage timeout. */
+    List<PlaceResult> sample(double latitude, double longitude, List<String> queries) {
+        return sample(latitude, longitude, queries, Deadline.after(stageTimeout.multipliedBy(2)));
+    }
+
+    List<PlaceResult> sample(double latitude, double longitude, List<String> queries, Deadline deadline) {
+        long start = System.nanoTime();
+        // stage 1: keyword sampling, merged by stable identity in query order
+        List<List<PlaceResult>> batches = gather(queries.size(), deadline,
+                i -> mapProvider.searchAsync(queries.get(i), latitude, longitude, SAMPLE_RADIUS));
+        Map<PlaceKey, PlaceResult> merged = new LinkedHashMap<>();
+        for (List<PlaceResult> batch : batches) {
+            if (batch == null) continue;
+            for (PlaceResult p : batch) {
+                if (p == null || p.name() == null || p.name().isBlank()) continue;
+                merged.merge(PlaceKey.of(p), p, PlaceResult::mergeWith);
+            }
+        }
+        List<PlaceResult> out = new ArrayList<>(merged.values().stream().limit(MAX_SAMPLE).toList());
+        // stage 2: detail lookup only for places missing fields
+        List<Integer> incomplete = new ArrayList<>();
+        for (int i = 0; i < out.size(); i++) {
+            if (!out.get(i).isComplete()) incomplete.add(i);
+        }
+        if (!incomplete.isEmpty()) {
+            List<PlaceResult> filled = gather(incomplete.size(), deadline, j -> fillDetails(out.get(incomplete.get(j)), latitude, longitude));
+            for (int j = 0; j < filled.size(); j++) {
+                if (filled.get(j) != null) out.set(incomplete.get(j), filled.get(j));
+            }
+        }
+        log.debug("place sampling done in {} ms (queries={}, distinct={}, detailLookups={})",
+                (System.nanoTime() - start) / 1_000_000, queries.size(), merged.size(), incomplete.size());
+        return out;
+    }
+
+    /**
+     * Subscribe to {@code count} calls at once and wait at most one stage timeout (less when the deadline is closer;
+     * nothing is issued once it has passed). The result list is index-aligned
+     * with the calls; entries whose call failed or did not finish in time are null.
+     */
+    private <T> List<T> gather(int count, Deadline deadline, IntFunction<Mono<T>> call) {
+        List<T> slots = new ArrayList<>(Collections.nCopies(count, null));
+        Duration timeout = deadline.cap(stageTimeout);
+        if (timeout.isZero()) return slots;
+        Flux.range(0, count)
+                .flatMap(i -> call.apply(i)
+                        .map(v -> Tuples.of(i, v))
+                        .onErrorResume(e -> Mono.empty()), count)
+                .take(timeout)
+                .doOnNext(t -> slots.set(t.getT1(), t.getT2()))
+                .then()
+                .contextWrite(SearchPriority.LOW.asContext()) // exploratory: yields upstream quota to per-menu lookups
+                .block();
+        return slots;
+    }
+
+    private Mono<PlaceResult> fillDetails(PlaceResult partial, double latitude, double longitude) {
+        return mapProvider.searchAsync(partial.name(), latitude, longitude, SAMPLE_RADIUS)
+                .map(found -> {
+                    for (PlaceResult candidate : found) {
+                        if (partial.name().equals(candidate.name())) return partial.mergeWith(candidate);
+                    }
+                    return found.isEmpty() ? partial : partial.mergeWith(found.get(0));
+                });
+    }
+}
@@ -0,0 +1,122 @@
+package com.knut4.backend.domain.recommendation;
+
+import com.knut4.backend.common.resilience.DegradationTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the recommendation pipeline, registered once up front:
+ * <ul>
+ *   <li>{@code recommend.stage.duration{stage}} per {@link Stage} and {@code recommend.pipeline.duration{tier}}
+ *   end to end, both with p50/p95/p99 and a percentile histogram (aggregatable across instances);</li>
+ *   <li>{@code recommend.fallback{source}} per {@link Fallback};</li>
+ *   <li>{@code recommend.degraded{tier}} for responses marked {@code degraded}.</li>
+ * </ul>
+ * A null registry turns every method into a plain call (unit tests).
+ */
+final class RecommendationMetrics {
+
+    enum Stage {
+        /** Weather normalisation, authentication, preference load. */
+        CONTEXT,
+        /** Nearby place sample for the LLM prompt. */
+        SAMPLING,
+        /** Menu generation (LLM chain, or the rule engine when the LLM is off). */
+        LLM,
+        /** Preference (dislike / allergy) filter and card limit. */
+        FILTER,
+        /** Per-menu place lookups and card assembly. */
+        LOOKUP,
+        /** History write (only the hand-off when written in the background). */
+        PERSIST;
+
+        String tag() { return name().toLowerCase(Locale.ROOT); }
+    }
+
+    enum Fallback {
+        /** Menus from the rule engine without asking the LLM (no LLM configured, MINIMAL tier). */
+        RULES,
+        /** LLM answer replaced by a fallback (fast path, stub) somewhere in the LLM chain. */
+        LLM,
+        /** One menu's place lookup timed out, failed or was skipped for lack of budget. */
+        LOOKUP;
+
+        String tag() { return name().toLowerCase(Locale.ROOT); }
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<DegradationTier, Timer> pipeline = new EnumMap<>(DegradationTier.class);
+    private final Map<Fallback, Counter> fallbacks = new EnumMap<>(Fallback.class);
+    private final Map<DegradationTier, Counter> degraded = new EnumMap<>(DegradationTier.class);
+
+    RecommendationMetrics(MeterRegistry registry) {
+        if (registry == null) return;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("recommend.stage.duration")
+                    .description("Time spent in one stage of the recommendation pipeline")
+                    .tag("stage", stage.tag())
+                    .publishPercentiles(PERCENTILES).publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (DegradationTier tier : DegradationTier.values()) {
+            pipeline.put(tier, Timer.builder("recommend.pipeline.duration")
+                    .description("Total recommendation pipeline time")
+                    .tag("tier", tier.name())
+                    .publishPercentiles(PERCENTILES).publishPercentileHistogram()
+                    .register(registry));
+            degraded.put(tier, Counter.builder("recommend.degraded")
+                    .description("Recommendations answered with degraded = true")
+                    .tag("tier", tier.name())
+                    .register(registry));
+        }
+        for (Fallback fallback : Fallback.values()) {
+            fallbacks.put(fallback, Counter.builder("recommend.fallback")
+                    .description("Pipeline steps answered by a fallback instead of their upstream")
+                    .tag("source", fallback.tag())
+                    .register(registry));
+        }
+    }
+
+    <T> T time(Stage stage, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            record(stages.get(stage), start);
+        }
+    }
+
+    void time(Stage stage, Runnable call) {
+        time(stage, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    void pipeline(DegradationTier tier, long startNanos) {
+        record(pipeline.get(tier), startNanos);
+    }
+
+    void fallback(Fallback fallback) {
+        Counter counter = fallbacks.get(fallback);
+        if (counter != null) counter.increment();
+    }
+
+    void degraded(DegradationTier tier) {
+        Counter counter = degraded.get(tier);
+        if (counter != null) counter.increment();
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        if (timer != null) timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,185 +1,305 @@
 package com.knut4.backend.domain.recommendation;
 
+import com.knut4.backend.common.resilience.Deadline;
+import com.knut4.backend.common.resilience.DegradationController;
+import com.knut4.backend.common.resilience.DegradationTier;
 import com.knut4.backend.domain.place.MapProvider;
 import com.knut4.backend.domain.place.PlaceResult;
+import com.knut4.backend.domain.place.SearchPriority;
 import com.knut4.backend.domain.llm.LlmClient;
 import com.knut4.backend.domain.llm.LlmMenuSuggestion;
+import com.knut4.backend.domain.llm.LlmPriority;
+import com.knut4.backend.domain.llm.LlmRequestContext;
+import com.knut4.backend.domain.llm.RuleBasedLlmClient;
 import com.knut4.backend.domain.llm.StructuredMenuPlace;
 import com.knut4.backend.domain.recommendation.dto.RecommendationRequest;
 import com.knut4.backend.domain.preference.repository.PreferenceRepository;
 import com.knut4.backend.domain.preference.entity.Preference;
+import com.knut4.backend.domain.preference.service.PreferenceMatcher;
+import com.knut4.backend.domain.preference.service.PreferenceMatcherCache;
 import com.knut4.backend.domain.recommendation.dto.RecommendationResponse;
 import com.knut4.backend.domain.recommendation.entity.RecommendationHistory;
 import com.knut4.backend.domain.recommendation.entity.SharedRecommendation;
 import com.knut4.backend.domain.recommendation.repository.RecommendationHistoryRepository;
 import com.knut4.backend.domain.recommendation.repository.SharedRecommendationRepository;
+import com.knut4.backend.domain.user.User;
+import com.knut4.backend.domain.user.UserContext;
+import com.knut4.backend.domain.user.UserContextResolver;
 import com.knut4.backend.domain.user.UserRepository;
 import com.knut4.backend.common.exception.ResourceNotFoundException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
-// Micrometer (fully qualified in code if IDE lint issues)
+import com.knut4.backend.domain.recommendation.RecommendationMetrics.Fallback;
+import com.knut4.backend.domain.recommendation.RecommendationMetrics.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 
 @Service
 public class RecommendationService {
 
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
     private final MapProvider mapProvider; // injected strategy (currently Naver only)
     private final RecommendationHistoryRepository historyRepository;
     private final LlmClient llmClient; // may be null when disabled
-    private final UserRepository userRepository;
     private final SharedRecommendationRepository sharedRepository;
-    private final PreferenceRepository preferenceRepository;
-    // MeterRegistry kept optional via reflection to avoid hard dependency if micrometer not on classpath in some environments
-    private final Object meterRegistry;
+    private final UserContextResolver userContexts; // caller + preference, resolved once per request
+    private final PreferenceMatcherCache preferenceMatchers; // compiled dislike / allergy matcher per preference
+    private final RecommendationMetrics metrics; // per-stage timers, fallback / degraded counters
     private final boolean historyDedupEnabled;
+    private final NearbyPlaceSampler placeSampler; // parallel prefetch of nearby place context
+    private final MenuSuggestionGenerator menuGenerator; // null when LLM disabled
+    private final RuleBasedLlmClient rulesEngine = new RuleBasedLlmClient(); // menus when no LLM is configured; allergen data
+    private final Duration defaultDeadline; // end-to-end budget of one recommend() call
+    private final Duration maxDeadline; // upper bound for client-requested budgets
+    private final Duration lookupReserve; // part of the budget kept from the LLM for per-menu lookups + persistence
+    private final Duration lookupTimeout; // per-menu place lookup (each menu on its own)
+    private final Executor executor;
+    private final DegradationController degradation; // null -> always NORMAL
+    private final int minimalMaxCards; // menu cards (place lookups) in the MINIMAL tier
 
+    @org.springframework.beans.factory.annotation.Autowired
     public RecommendationService(MapProvider mapProvider,
                                  RecommendationHistoryRepository historyRepository,
                                  @org.springframework.beans.factory.annotation.Autowired(required = false) LlmClient llmClient,
-                                 UserRepository userRepository,
+                                 UserContextResolver userContexts,
+                                 PreferenceMatcherCache preferenceMatchers,
                                  SharedRecommendationRepository sharedRepository,
-                                 PreferenceRepository preferenceRepository,
-                                 @org.springframework.beans.factory.annotation.Autowired(required = false) Object meterRegistry,
-                                 @Value("${app.history.dedup.enabled:true}") boolean historyDedupEnabled) {
+                                 @org.springframework.beans.factory.annotation.Autowired(required = false) MeterRegistry meterRegistry,
+                                 @Value("${app.history.dedup.enabled:true}") boolean historyDedupEnabled,
+                                 @Value("${app.recommendation.prefetch.stage-timeout-ms:1500}") long prefetchStageTimeoutMs,
+                                 @Value("${app.llm.call-mode:single}") String llmCallMode,
+                                 @org.springframework.beans.factory.annotation.Qualifier("recommendationExecutor") Executor executor,
+                                 @Value("${app.recommendation.deadline.default-ms:20000}") long defaultDeadlineMs,
+                                 @Value("${app.recommendation.deadline.max-ms:30000}") long maxDeadlineMs,
+                                 @Value("${app.recommendation.deadline.lookup-reserve-ms:2000}") long lookupReserveMs,
+                                 @Value("${app.recommendation.lookup.timeout-ms:1500}") long lookupTimeoutMs,
+                                 @org.springframework.beans.factory.annotation.Autowired(required = false) DegradationController degradation,
+                                 @Value("${app.degradation.minimal.max-cards:2}") int minimalMaxCards) {
         this.mapProvider = mapProvider;
         this.historyRepository = historyRepository;
         this.llmClient = llmClient; // may be null
-        this.userRepository = userRepository;
         this.sharedRepository = sharedRepository;
-        this.preferenceRepository = preferenceRepository;
-        this.meterRegistry = meterRegistry;
+        this.userContexts = userContexts;
+        this.preferenceMatchers = preferenceMatchers;
+        this.metrics = new RecommendationMetrics(meterRegistry);
         this.historyDedupEnabled = historyDedupEnabled;
+        this.placeSampler = new NearbyPlaceSampler(mapProvider, Duration.ofMillis(prefetchStageTimeoutMs));
+        this.menuGenerator = llmClient == null ? null : new MenuSuggestionGenerator(llmClient, LlmCallMode.from(llmCallMode), executor);
+        this.defaultDeadline = Duration.ofMillis(defaultDeadlineMs);
+        this.maxDeadline = Duration.ofMillis(Math.max(defaultDeadlineMs, maxDeadlineMs));
+        this.lookupReserve = Duration.ofMillis(lookupReserveMs);
+        this.lookupTimeout = Duration.ofMillis(lookupTimeoutMs);
+        this.executor = executor;
+        this.degradation = degradation;
+        this.minimalMaxCards = Math.max(1, minimalMaxCards);
+    }
+
+    /** Convenience constructor (tests) with default stage timeouts and a single structured LLM call. */
+    public RecommendationService(MapProvider mapProvider,
+                                 RecommendationHistoryRepository historyRepository,
+                                 LlmClient llmClient,
+                                 UserRepository userRepository,
+                                 SharedRecommendationRepository sharedRepository,
+                                 PreferenceRepository preferenceRepository,
+                                 MeterRegistry meterRegistry,
+                                 boolean historyDedupEnabled) {
+        this(mapProvider, historyRepository, llmClient, new UserContextResolver(userRepository, preferenceRepository),
+                new PreferenceMatcherCache(1000), sharedRepository, meterRegistry, historyDedupEnabled, 1500, "single", Runnable::run, 20000, 30000, 2000, 1500, null, 2);
     }
 
     public RecommendationResponse recommend(RecommendationRequest request) {
-    long tStart = System.nanoTime();
-    Object sample = null;
-    if (meterRegistry != null) {
-        try {
-            Class<?> timerCls = Class.forName("io.micrometer.core.instrument.Timer");
-            var startMethod = timerCls.getMethod("start", Class.forName("io.micrometer.core.instrument.MeterRegistry"));
-            sample = startMethod.invoke(null, meterRegistry);
-        } catch (Exception ignore) {}
+        return recommend(request, null, (card, index) -> {});
     }
-        String normalizedWeather = normalizeWeather(request.weather());
-        org.slf4j.LoggerFactory.getLogger(RecommendationService.class).info("recommend request lat={}, lon={}, weather={}, moods={}, budget={}", request.latitude(), request.longitude(), normalizedWeather, request.moods(), request.budget());
-        // derive menu candidates
-    List<LlmMenuSuggestion> suggestions;
-    List<StructuredMenuPlace> structured = null;
-        if (llmClient != null) {
-            // Future: augment LLM prompt with extended preferences (likes, diet types, spice levels, notes)
-            // Currently LlmClient interface only supports moods & weather; enhancement would require interface change.
-            // We can bias moods list by appending first like or diet token to broaden context.
-            Preference pref = currentUserPreference();
-            List<String> moodContext = request.moods();
-            if (pref != null) {
-                String firstLike = (pref.getLikes() != null && !pref.getLikes().isBlank()) ? pref.getLikes().split(",")[0].trim() : null;
-                if (firstLike != null && !firstLike.isBlank()) {
-                    // append lightweight signal if not already present
-                    if (moodContext == null || moodContext.isEmpty()) {
-                        moodContext = List.of(firstLike);
-                    } else if (!moodContext.contains(firstLike)) {
-                        moodContext = new java.util.ArrayList<>(moodContext);
-                        ((java.util.ArrayList<String>) moodContext).add(firstLike);
-                    }
-                }
+
+    public RecommendationResponse recommend(RecommendationRequest request,
+                                            java.util.function.ObjIntConsumer<RecommendationResponse.MenuRecommendation> onCard) {
+        return recommend(request, null, onCard);
+    }
+
+    /**
+     * Same pipeline as {@link #recommend(RecommendationRequest)}, handing each menu card to {@code onCard} (with its
+     * position in the final response) as soon as its places are resolved. Used by the streaming endpoint.
+     * <p>
+     * All stages (place sampling, LLM, per-menu lookups, persistence) draw their timeouts from one deadline of
+     * {@code budget} (null = {@code app.recommendation.deadline.default-ms}, capped at {@code max-ms}). A stage that
+     * runs out of budget keeps what it has and the response is marked {@code degraded}.
+     * <p>
+     * Under load the {@link DegradationController} tier picks a cheaper pipeline: REDUCED serves LLM answers from
+     * the result cache only (everything else from the rule engine); MINIMAL skips the LLM and place sampling and
+     * returns fewer cards. Responses built below NORMAL are marked {@code degraded} as well.
+     * <p>
+     * Stages run in order (context, sampling, LLM, filter, lookup, persist), each timed by {@link RecommendationMetrics}.
+     */
+    public RecommendationResponse recommend(RecommendationRequest request, Duration budget,
+                                            java.util.function.ObjIntConsumer<RecommendationResponse.MenuRecommendation> onCard) {
+        long start = System.nanoTime();
+        Deadline deadline = Deadline.after(budget == null || budget.isNegative() || budget.isZero() ? defaultDeadline
+                : budget.compareTo(maxDeadline) > 0 ? maxDeadline : budget);
+        DegradationTier tier = degradation == null ? DegradationTier.NORMAL : degradation.tier();
+        AtomicBoolean degraded = new AtomicBoolean(tier != DegradationTier.NORMAL);
+        PipelineContext ctx = metrics.time(Stage.CONTEXT, () -> loadContext(request));
+        log.info("recommend request lat={}, lon={}, weather={}, moods={}, budget={}", request.latitude(), request.longitude(), ctx.weather(), request.moods(), request.budget());
+        MenuSuggestionGenerator.Result menus;
+        if (llmClient != null && tier != DegradationTier.MINIMAL) {
+            List<PlaceResult> nearby = metrics.time(Stage.SAMPLING, () -> samplePlaces(request, deadline));
+            menus = metrics.time(Stage.LLM, () -> generateMenus(request, ctx, nearby, deadline, tier));
+            if (menus.degraded()) {
+                degraded.set(true);
+                metrics.fallback(Fallback.LLM);
             }
-            // Prefetch a broader nearby sample with multiple lightweight queries derived from moods for richer LLM context.
-            List<PlaceResult> nearbyPlacesFull;
-            try {
-                java.util.Set<String> acc = new java.util.LinkedHashSet<>();
-                acc.addAll(mapProvider.search("맛집", request.latitude(), request.longitude(), 1500).stream().map(PlaceResult::name).toList());
-                acc.addAll(mapProvider.search("음식", request.latitude(), request.longitude(), 1500).stream().map(PlaceResult::name).toList());
-                if (request.moods() != null) {
-                    for (String mood : request.moods()) {
-                        String q = moodToQuery(mood);
-                        if (q != null) {
-                            acc.addAll(mapProvider.search(q, request.latitude(), request.longitude(), 1500).stream().map(PlaceResult::name).toList());
-                        }
-                    }
-                }
-                // After name sampling, fetch minimal details for first N distinct names using generic search again (could optimize via caching); for now search each name individually limited to 1 result.
-                List<String> nameList = acc.stream().filter(s -> s != null && !s.isBlank()).limit(20).toList();
-                java.util.List<PlaceResult> details = new java.util.ArrayList<>();
-                for (String n : nameList) {
-                    try {
-                        var one = mapProvider.search(n, request.latitude(), request.longitude(), 1500);
-                        if (!one.isEmpty()) details.add(one.get(0));
-                    } catch (Exception ignore) {}
+        } else {
+            menus = metrics.time(Stage.LLM, () -> new MenuSuggestionGenerator.Result(
+                    rulesEngine.suggestMenus(request.moods(), ctx.weather(), request.budget(),
+                            request.latitude(), request.longitude(), List.of(), 10), null));
+            metrics.fallback(Fallback.RULES);
+        }
+        Filtered filtered = metrics.time(Stage.FILTER, () -> filterByPreference(menus.suggestions(), ctx.preference(), tier));
+        List<RecommendationResponse.MenuRecommendation> recs = metrics.time(Stage.LOOKUP,
+                () -> buildCards(filtered, menus.structured(), request, ctx, deadline, degraded, onCard));
+        List<LlmMenuSuggestion> top = filtered.top();
+        String chosenMenu = top.isEmpty() ? menus.suggestions().get(0).menu() : top.get(0).menu();
+        metrics.time(Stage.PERSIST, () -> persist(request, ctx, chosenMenu, deadline, degraded));
+        if (degraded.get()) metrics.degraded(tier);
+        metrics.pipeline(tier, start);
+        log.info("recommend pipeline completed in {} ms (menusRaw={} filtered={} tier={} degraded={})", (System.nanoTime() - start) / 1_000_000, menus.suggestions().size(), top.size(), tier, degraded.get());
+        return new RecommendationResponse(recs, degraded.get());
+    }
+
+    /** Per-request inputs resolved once up front: normalized weather, caller and their stored preference. */
+    private record PipelineContext(String weather, UserContext user, Preference preference) {}
+
+    /** Menus left after the preference filter; {@code conflict} = everything was filtered, so the filter was ignored. */
+    private record Filtered(List<LlmMenuSuggestion> top, boolean conflict) {}
+
+    private PipelineContext loadContext(RecommendationRequest request) {
+        UserContext user = UserContext.ANONYMOUS;
+        Preference pref = null;
+        try {
+            user = userContexts.current();
+            pref = user.preference().orElse(null);
+        } catch (Exception ignored) {
+            // lookup failure: recommend without personalisation
+        }
+        return new PipelineContext(normalizeWeather(request.weather()), user, pref);
+    }
+
+    /**
+     * Broader nearby sample (one generic query + mood-derived ones) for richer LLM context. Each provider search
+     * already merges several rankings, so the generic query alone yields a usable sample. Searches are composed
+     * reactively; each stage keeps whatever returned before its deadline.
+     */
+    private List<PlaceResult> samplePlaces(RecommendationRequest request, Deadline deadline) {
+        try {
+            List<String> queries = new java.util.ArrayList<>(List.of("맛집"));
+            if (request.moods() != null) {
+                for (String mood : request.moods()) {
+                    String q = moodToQuery(mood);
+                    if (q != null && !queries.contains(q)) queries.add(q);
                 }
-                nearbyPlacesFull = details;
-            } catch (Exception e) {
-                nearbyPlacesFull = List.of();
             }
-            List<String> nearbyNames = nearbyPlacesFull.stream().map(PlaceResult::name).toList();
-            // Build place sample JSON with distance/category
-            String placeSamplesJson = toPlaceSampleJson(nearbyPlacesFull);
-            // Ask for up to 10 raw menus (simple) first as fallback
-            suggestions = llmClient.suggestMenus(moodContext, normalizedWeather, request.budget(), request.latitude(), request.longitude(), nearbyNames, 10);
-            try {
-                structured = llmClient.suggestMenusWithPlaces(moodContext, normalizedWeather, request.budget(), request.latitude(), request.longitude(), placeSamplesJson, 10);
-            } catch (Exception ignore) {}
-        } else {
-            String base = request.moods() != null && !request.moods().isEmpty() ? request.moods().get(0) : "맛있는";
-            suggestions = List.of(new LlmMenuSuggestion(base, base + " 기본 추천"));
+            return placeSampler.sample(request.latitude(), request.longitude(), queries, deadline.minus(lookupReserve));
+        } catch (Exception e) {
+            return List.of();
         }
-        // preferences filter (filter by menu name)
-        Preference pref = currentUserPreference();
+    }
+
+    private MenuSuggestionGenerator.Result generateMenus(RecommendationRequest request, PipelineContext ctx,
+                                                         List<PlaceResult> nearby, Deadline deadline, DegradationTier tier) {
+        // Up to 10 menus; single structured generation by default (see app.llm.call-mode).
+        MenuSuggestionGenerator.Input input = new MenuSuggestionGenerator.Input(
+                moodContext(request.moods(), ctx.preference()), ctx.weather(), request.budget(),
+                request.latitude(), request.longitude(),
+                nearby.stream().map(PlaceResult::name).toList(), toPlaceSampleJson(nearby), 10);
+        LlmRequestContext llmContext = LlmRequestContext.current();
+        // The LLM deadline leaves lookupReserve of the budget for the per-menu place lookups.
+        // REDUCED = cache only: the result cache answers before any deadline check; an already passed deadline
+        // makes the scheduler hand every miss to the rule engine instead of queueing for the model
+        Deadline llmDeadline = tier == DegradationTier.REDUCED ? Deadline.at(Instant.EPOCH)
+                : deadline.minus(lookupReserve).min(llmContext.deadline());
+        return LlmRequestContext.with(
+                new LlmRequestContext(llmContext.priority(), llmContext.user(), llmDeadline.toInstant()),
+                () -> menuGenerator.generate(input, deadline.minus(lookupReserve)));
+    }
+
+    /**
+     * The LlmClient interface only takes moods and weather, so the first liked dish is appended to the moods as a
+     * lightweight preference signal (if not already present).
+     */
+    private static List<String> moodContext(List<String> moods, Preference pref) {
+        if (pref == null || pref.getLikes() == null || pref.getLikes().isBlank()) return moods;
+        String firstLike = pref.getLikes().split(",")[0].trim();
+        if (firstLike.isBlank()) return moods;
+        if (moods == null || moods.isEmpty()) return List.of(firstLike);
+        if (moods.contains(firstLike)) return moods;
+        List<String> out = new java.util.ArrayList<>(moods);
+        out.add(firstLike);
+        return out;
+    }
+
+    /**
+     * Drops menus naming a dislike or allergy, or listed in the menu catalogue with such an ingredient, then keeps the
+     * top 4 (fewer cards -> fewer lookups in MINIMAL).
+     */
+    private Filtered filterByPreference(List<LlmMenuSuggestion> suggestions, Preference pref, DegradationTier tier) {
         List<LlmMenuSuggestion> filtered = suggestions;
-        boolean filteredOut = false;
+        boolean conflict = false;
         if (pref != null) {
-            var dislikes = java.util.Set.of(pref.dislikeArray());
-            var allergies = java.util.Set.of(pref.allergyArray());
-            filtered = suggestions.stream().filter(s ->
-                    dislikes.stream().noneMatch(d -> !d.isBlank() && s.menu().contains(d)) &&
-                            allergies.stream().noneMatch(a -> !a.isBlank() && s.menu().contains(a))
-            ).toList();
+            PreferenceMatcher matcher = preferenceMatchers.forPreference(pref);
+            filtered = rulesEngine.withoutAllergens(matcher.reject(suggestions, LlmMenuSuggestion::menu),
+                    LlmMenuSuggestion::menu, matcher::matches);
             if (filtered.isEmpty()) { // all filtered -> fallback to original but mark conflict
-                filteredOut = true;
+                conflict = true;
                 filtered = suggestions;
             }
         }
-        final boolean noteConflict = filteredOut;
-        // limit to top4 after filtering
-        List<LlmMenuSuggestion> top = filtered.stream().limit(4).toList();
-        final List<StructuredMenuPlace> structuredFinal = structured;
-        List<RecommendationResponse.MenuRecommendation> recs = top.stream().map(s -> {
-            List<String> mappedPlaces = extractStructuredPlaces(structuredFinal, s.menu());
-            return buildMenuRecommendation(s.menu(), s.reason(), request, normalizedWeather, noteConflict, mappedPlaces);
-        }).collect(Collectors.toList());
-        persistHistory(request, normalizedWeather, top.isEmpty()? suggestions.get(0).menu() : top.get(0).menu());
-    long elapsedMs = (System.nanoTime()-tStart)/1_000_000;
-    if (sample != null && meterRegistry != null) {
-        try {
-            Class<?> timerCls = Class.forName("io.micrometer.core.instrument.Timer");
-            var builderMethod = timerCls.getMethod("builder", String.class);
-            Object builder = builderMethod.invoke(null, "recommend.pipeline.duration");
-            // call description(String)
-            var descMethod = builder.getClass().getMethod("description", String.class);
-            builder = descMethod.invoke(builder, "Total recommendation pipeline ms");
-            // call register(MeterRegistry)
-            var registerMethod = builder.getClass().getMethod("register", Class.forName("io.micrometer.core.instrument.MeterRegistry"));
-            Object timer = registerMethod.invoke(builder, meterRegistry);
-            var sampleCls = Class.forName("io.micrometer.core.instrument.Timer$Sample");
-            var stopMethod = sampleCls.getMethod("stop", timerCls);
-            stopMethod.invoke(sample, timer);
-        } catch (Exception ignore) {}
+        int limit = tier == DegradationTier.MINIMAL ? Math.min(4, minimalMaxCards) : 4;
+        return new Filtered(filtered.stream().limit(limit).toList(), conflict);
     }
-        org.slf4j.LoggerFactory.getLogger(RecommendationService.class).info("recommend pipeline completed in {} ms (menusRaw={} filtered={})", elapsedMs, suggestions.size(), top.size());
-        return new RecommendationResponse(recs);
+
+    /** Per-menu place lookups run concurrently; cards are handed out as lookups finish and kept in menu order. */
+    private List<RecommendationResponse.MenuRecommendation> buildCards(Filtered filtered, List<StructuredMenuPlace> structured,
+                                                                       RecommendationRequest request, PipelineContext ctx,
+                                                                       Deadline deadline, AtomicBoolean degraded,
+                                                                       java.util.function.ObjIntConsumer<RecommendationResponse.MenuRecommendation> onCard) {
+        List<LlmMenuSuggestion> top = filtered.top();
+        RecommendationResponse.MenuRecommendation[] cards = new RecommendationResponse.MenuRecommendation[top.size()];
+        for (PlaceLookup lookup : lookupPlaces(top, request, deadline, degraded)) {
+            LlmMenuSuggestion s = top.get(lookup.index());
+            List<String> mappedPlaces = extractStructuredPlaces(structured, s.menu());
+            RecommendationResponse.MenuRecommendation card = buildMenuRecommendation(s.menu(), s.reason(), request, ctx.weather(), filtered.conflict(), mappedPlaces, lookup.places());
+            cards[lookup.index()] = card;
+            onCard.accept(card, lookup.index());
+        }
+        return List.of(cards);
     }
 
-    public RecommendationResponse retry(Long historyId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !(auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User principal)) {
-            throw new IllegalArgumentException("Unauthenticated");
+    private void persist(RecommendationRequest request, PipelineContext ctx, String chosenMenu, Deadline deadline,
+                         AtomicBoolean degraded) {
+        if (deadline.isExpired()) {
+            // out of budget: answer now, history is written in the background
+            degraded.set(true);
+            try {
+                executor.execute(() -> persistHistory(request, ctx.weather(), chosenMenu, ctx.user()));
+            } catch (RejectedExecutionException e) {
+                persistHistory(request, ctx.weather(), chosenMenu, ctx.user());
+            }
+        } else {
+            persistHistory(request, ctx.weather(), chosenMenu, ctx.user());
         }
-        String username = principal.getUsername();
-        var user = userRepository.findByUsername(username).orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    public RecommendationResponse retry(Long historyId) {
+        User user = currentUser();
         RecommendationHistory baseHistory;
         if (historyId != null) {
             baseHistory = historyRepository.findById(historyId)
@@ -196,16 +316,12 @@ public class RecommendationService {
                 baseHistory.getLatitude(),
                 baseHistory.getLongitude()
         );
-        return recommend(request);
+        // regenerations queue behind fresh interactive requests for LLM slots
+        return LlmRequestContext.with(LlmPriority.RETRY, () -> recommend(request));
     }
 
     public SharedRecommendation share(Long historyId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !(auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User principal)) {
-            throw new IllegalArgumentException("Unauthenticated");
-        }
-        var user = userRepository.findByUsername(principal.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        User user = currentUser();
         RecommendationHistory history;
         if (historyId != null) {
             history = historyRepository.findById(historyId)
@@ -241,15 +357,42 @@ public class RecommendationService {
         return h;
     }
 
-    private RecommendationResponse.MenuRecommendation buildMenuRecommendation(String menu, String llmReason, RecommendationRequest request, String normalizedWeather, boolean noteConflict, List<String> preselectedPlaceNames) {
-        String keyword = menu + " 음식";
-        List<PlaceResult> places;
-        try {
-            places = mapProvider.search(keyword, request.latitude(), request.longitude(), 1000);
-        } catch (Exception e) {
-            // fallback to empty list to satisfy non-functional requirement (resilience)
-            places = List.of();
+    /** Places found for the menu at {@code index} of the chosen list. */
+    private record PlaceLookup(int index, List<PlaceResult> places) {}
+
+    /**
+     * One "{menu} 음식" search per menu, all subscribed at once. Each gets its own timeout (lookupTimeout, shortened to
+     * the request deadline); a failed or late lookup yields an empty list for that menu only. Results are returned in
+     * completion order (every index exactly once); once the deadline has passed no lookup is issued.
+     */
+    private Iterable<PlaceLookup> lookupPlaces(List<LlmMenuSuggestion> menus, RecommendationRequest request,
+                                               Deadline deadline, AtomicBoolean degraded) {
+        if (menus.isEmpty()) return List.of();
+        Duration timeout = deadline.cap(lookupTimeout);
+        if (timeout.isZero()) {
+            // budget spent: cards without places rather than a late response
+            degraded.set(true);
+            for (int i = 0; i < menus.size(); i++) metrics.fallback(Fallback.LOOKUP);
+            List<PlaceLookup> empty = new java.util.ArrayList<>(menus.size());
+            for (int i = 0; i < menus.size(); i++) empty.add(new PlaceLookup(i, List.of()));
+            return empty;
         }
+        return reactor.core.publisher.Flux.range(0, menus.size())
+                .flatMap(i -> mapProvider.searchAsync(menus.get(i).menu() + " 음식", request.latitude(), request.longitude(), 1000)
+                        .timeout(timeout)
+                        .defaultIfEmpty(List.of())
+                        .map(places -> new PlaceLookup(i, places))
+                        .onErrorResume(e -> {
+                            // fallback to empty list to satisfy non-functional requirement (resilience)
+                            if (e instanceof java.util.concurrent.TimeoutException) degraded.set(true);
+                            metrics.fallback(Fallback.LOOKUP);
+                            return reactor.core.publisher.Mono.just(new PlaceLookup(i, List.of()));
+                        }), menus.size())
+                .contextWrite(SearchPriority.HIGH.asContext()) // user-visible lookups: first in line for upstream quota
+                .toIterable(menus.size());
+    }
+
+    private RecommendationResponse.MenuRecommendation buildMenuRecommendation(String menu, String llmReason, RecommendationRequest request, String normalizedWeather, boolean noteConflict, List<String> preselectedPlaceNames, List<PlaceResult> places) {
         // If structured LLM selected places exist, prioritize them order-wise
         if (preselectedPlaceNames != null && !preselectedPlaceNames.isEmpty()) {
             var map = places.stream().collect(Collectors.toMap(PlaceResult::name, p->p, (a,b)->a));
@@ -279,30 +422,18 @@ public class RecommendationService {
         return sb.toString();
     }
 
-    private void persistHistory(RecommendationRequest request, String normalizedWeather, String chosenMenu) {
+    private void persistHistory(RecommendationRequest request, String normalizedWeather, String chosenMenu, UserContext caller) {
         try {
-            if (historyRepository == null || userRepository == null) return;
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            org.springframework.security.core.userdetails.User principal = null;
-            if (auth != null && auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User p) {
-                principal = p;
-            }
+            if (historyRepository == null) return;
+            User user = caller.user().orElse(null);
             // idempotency: if last record (within 2 seconds) has identical weather,moods,budget,lat,lon skip
-            if (principal != null && historyDedupEnabled) {
-                var userOpt = userRepository.findByUsername(principal.getUsername());
-                if (userOpt.isPresent()) {
-                    var user = userOpt.get();
-            // normalize moods string
-            String normalizedMoods = request.moods() == null ? null : request.moods().stream()
-                .map(String::trim).filter(s -> !s.isEmpty()).reduce((a,b) -> a+","+b).orElse("");
-            if (normalizedMoods != null && normalizedMoods.isBlank()) normalizedMoods = null;
-            // fetch recent history list (avoid adding new query method -> simple stream on existing finder)
-            var lastOpt = historyRepository.findFirstByUserOrderByCreatedAtDesc(user);
-            if (lastOpt.isPresent()) {
-            var last = lastOpt.get();
-            if (isSameRequest(last, request, normalizedMoods)) return;
-            }
-                }
+            if (user != null && historyDedupEnabled) {
+                // normalize moods string
+                String normalizedMoods = request.moods() == null ? null : request.moods().stream()
+                        .map(String::trim).filter(s -> !s.isEmpty()).reduce((a,b) -> a+","+b).orElse("");
+                if (normalizedMoods != null && normalizedMoods.isBlank()) normalizedMoods = null;
+                var lastOpt = historyRepository.findFirstByUserOrderByCreatedAtDesc(user);
+                if (lastOpt.isPresent() && isSameRequest(lastOpt.get(), request, normalizedMoods)) return;
             }
             RecommendationHistory h = new RecommendationHistory();
             h.setWeather(normalizedWeather);
@@ -310,9 +441,7 @@ public class RecommendationService {
             h.setBudget(request.budget());
             h.setLatitude(request.latitude());
             h.setLongitude(request.longitude());
-            if (principal != null) {
-                userRepository.findByUsername(principal.getUsername()).ifPresent(h::setUser);
-            }
+            h.setUser(user);
             historyRepository.save(h);
         } catch (Exception ignored) {
             // swallow to avoid disrupting main flow
@@ -335,18 +464,11 @@ public class RecommendationService {
     return diffMillis < 2000; // 2 seconds window
     }
 
-    private Preference currentUserPreference() {
-        try {
-            if (userRepository == null || preferenceRepository == null) return null;
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User principal) {
-                var userOpt = userRepository.findByUsername(principal.getUsername());
-                if (userOpt.isPresent()) {
-                    return preferenceRepository.findByUser(userOpt.get()).orElse(null);
-                }
-            }
-        } catch (Exception ignored) {}
-        return null;
+    /** The authenticated caller (retry / share). */
+    private User currentUser() {
+        UserContext caller = userContexts.current();
+        if (caller.username() == null) throw new IllegalArgumentException("Unauthenticated");
+        return caller.user().orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
     private String toPlaceSampleJson(List<PlaceResult> places) {
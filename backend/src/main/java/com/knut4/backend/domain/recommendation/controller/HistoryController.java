@@ -2,8 +2,8 @@ package com.knut4.backend.domain.recommendation.controller;
 
 import com.knut4.backend.domain.recommendation.entity.RecommendationHistory;
 import com.knut4.backend.domain.recommendation.repository.RecommendationHistoryRepository;
-import com.knut4.backend.domain.user.UserRepository;
 import com.knut4.backend.domain.user.User;
+import com.knut4.backend.domain.user.UserContextResolver;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,18 +22,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HistoryController {
     private final RecommendationHistoryRepository repository;
-    private final UserRepository userRepository;
+    private final UserContextResolver userContexts;
 
     @GetMapping
     public ResponseEntity<HistoryPageResponse> list(Authentication auth, Integer page, Integer size) {
         int p = page != null && page >= 0 ? page : 0;
         int s = size != null && size > 0 && size <= 100 ? size : 10;
         Pageable pageable = PageRequest.of(p, s, Sort.by(Sort.Direction.DESC, "createdAt"));
-        if (auth == null || !(auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User springUser)) {
-            return ResponseEntity.ok(HistoryPageResponse.empty());
-        }
-        String username = springUser.getUsername();
-        User user = userRepository.findByUsername(username).orElse(null);
+        User user = userContexts.resolve(auth).user().orElse(null);
         if (user == null) {
             return ResponseEntity.ok(HistoryPageResponse.empty());
         }
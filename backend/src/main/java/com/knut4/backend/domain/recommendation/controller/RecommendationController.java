@@ -4,24 +4,81 @@ import com.knut4.backend.domain.recommendation.RecommendationService;
 import com.knut4.backend.domain.recommendation.dto.RecommendationRequest;
 import com.knut4.backend.domain.recommendation.dto.RecommendationResponse;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @Tag(name = "Recommendation", description = "Menu recommendation APIs using local LLM and Naver map")
 @RequestMapping("/api/private/recommendations")
-@RequiredArgsConstructor
 public class RecommendationController {
 
+    private static final Logger log = LoggerFactory.getLogger(RecommendationController.class);
+    /** Optional per-request time budget in ms (capped by app.recommendation.deadline.max-ms). */
+    static final String DEADLINE_HEADER = "X-Deadline-Ms";
+
     private final RecommendationService recommendationService;
+    private final Executor streamExecutor;
+    private final long streamTimeoutMs;
+
+    public RecommendationController(RecommendationService recommendationService,
+                                    @Qualifier("streamExecutor") Executor streamExecutor,
+                                    @Value("${app.recommendation.stream.timeout-ms:60000}") long streamTimeoutMs) {
+        this.recommendationService = recommendationService;
+        this.streamExecutor = streamExecutor;
+        this.streamTimeoutMs = streamTimeoutMs;
+    }
 
     @PostMapping
     @Operation(summary = "Get menu recommendations", description = "Generate 3~4 menu suggestions with reasons and nearby places based on weather, moods, budget, and location.")
-    public ResponseEntity<RecommendationResponse> recommend(@Valid @RequestBody RecommendationRequest request) {
-        return ResponseEntity.ok(recommendationService.recommend(request));
+    public ResponseEntity<RecommendationResponse> recommend(@Valid @RequestBody RecommendationRequest request,
+                                                            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        return ResponseEntity.ok(recommendationService.recommend(request, budget(deadlineMs), (card, index) -> {}));
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream menu recommendations", description = "Same input as POST /api/private/recommendations. Emits a 'menu' event (id = position) per MenuRecommendation as soon as its places are ready, then a 'complete' event ({count, degraded}); failures end the stream with an 'error' event.")
+    public SseEmitter recommendStream(@Valid @RequestBody RecommendationRequest request,
+                                      @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Duration budget = budget(deadlineMs);
+        // the pipeline reads the authenticated user (preferences, history) -> carry the security context over
+        Runnable pipeline = new DelegatingSecurityContextRunnable(() -> {
+            try {
+                RecommendationResponse response = recommendationService.recommend(request, budget,
+                        (card, index) -> send(emitter, SseEmitter.event().id(String.valueOf(index)).name("menu").data(card)));
+                send(emitter, SseEmitter.event().name("complete").data(Map.of("count", response.menuRecommendations().size(),
+                        "degraded", response.degraded())));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                log.debug("recommendation stream closed by client: {}", e.getMessage());
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("recommendation stream failed: {}", e.toString());
+                sendError(emitter, e.getMessage());
+            }
+        });
+        try {
+            streamExecutor.execute(pipeline);
+        } catch (RejectedExecutionException e) {
+            sendError(emitter, "busy");
+        }
+        return emitter;
     }
 
     @PostMapping("/retry")
@@ -29,4 +86,26 @@ public class RecommendationController {
     public ResponseEntity<RecommendationResponse> retry(@RequestParam(required = false) Long historyId) {
         return ResponseEntity.ok(recommendationService.retry(historyId));
     }
+
+    private static Duration budget(Long deadlineMs) {
+        return deadlineMs == null || deadlineMs <= 0 ? null : Duration.ofMillis(deadlineMs);
+    }
+
+    /** Client gone -> unchecked so the remaining pipeline work is abandoned. */
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sendError(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(Map.of("message", message == null ? "error" : message)));
+            emitter.complete();
+        } catch (Exception ignore) {
+            emitter.completeWithError(new IllegalStateException(message));
+        }
+    }
 }
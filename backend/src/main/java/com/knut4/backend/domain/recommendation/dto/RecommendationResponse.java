@@ -2,7 +2,12 @@ package com.knut4.backend.domain.recommendation.dto;
 
 import java.util.List;
 
-public record RecommendationResponse(List<MenuRecommendation> menuRecommendations) {
+/** {@code degraded}: the request ran out of time budget or the LLM was unavailable, so some content is partial. */
+public record RecommendationResponse(List<MenuRecommendation> menuRecommendations, boolean degraded) {
+    public RecommendationResponse(List<MenuRecommendation> menuRecommendations) {
+        this(menuRecommendations, false);
+    }
+
     public record MenuRecommendation(String menuName, String reason, List<Place> places) {}
     public record Place(String name, double latitude, double longitude, String address, double distanceMeters, double durationMinutes) {}
 }
@@ -0,0 +1,51 @@
+package com.knut4.backend.domain.user;
+
+import com.knut4.backend.domain.preference.entity.Preference;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The caller of the current request, resolved once by {@link UserContextResolver}: the user row and, loaded on first
+ * use, their preference. Both are detached snapshots (no open session) - fine for reads and as foreign keys.
+ */
+public final class UserContext {
+
+    public static final UserContext ANONYMOUS = new UserContext(null, null, u -> Optional.empty());
+
+    private final String username; // from the authentication; null when unauthenticated
+    private final User user; // null when unauthenticated or unknown
+    private final Function<User, Optional<Preference>> preferenceLoader;
+    private volatile Optional<Preference> preference; // null until first loaded
+
+    UserContext(String username, User user, Function<User, Optional<Preference>> preferenceLoader) {
+        this.username = username;
+        this.user = user;
+        this.preferenceLoader = preferenceLoader;
+    }
+
+    /** Principal name, or null without an authenticated principal. */
+    public String username() { return username; }
+
+    public Optional<User> user() { return Optional.ofNullable(user); }
+
+    public Long userId() { return user == null ? null : user.getId(); }
+
+    /** True when the principal maps to a stored user. */
+    public boolean authenticated() { return user != null; }
+
+    /** The user's preference, queried at most once per context. */
+    public Optional<Preference> preference() {
+        Optional<Preference> p = preference;
+        if (p == null) {
+            p = user == null ? Optional.empty() : preferenceLoader.apply(user);
+            preference = p;
+        }
+        return p;
+    }
+
+    /** Replaces the snapshot after the preference was written in this request. */
+    public void updatePreference(Preference updated) {
+        preference = Optional.ofNullable(updated);
+    }
+}
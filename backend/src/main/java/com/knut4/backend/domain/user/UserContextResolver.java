@@ -0,0 +1,53 @@
+package com.knut4.backend.domain.user;
+
+import com.knut4.backend.domain.preference.repository.PreferenceRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Resolves the {@link UserContext} of the authenticated caller. Inside a web request the context is kept as a request
+ * attribute, so controllers and services handling the same request share one user lookup and one preference query.
+ * Outside a request (background work, tests) every call resolves afresh - callers that need it more than once pass
+ * the context along.
+ */
+@Component
+public class UserContextResolver {
+
+    static final String ATTRIBUTE = UserContext.class.getName();
+
+    private final UserRepository userRepository;
+    private final PreferenceRepository preferenceRepository;
+
+    public UserContextResolver(UserRepository userRepository, PreferenceRepository preferenceRepository) {
+        this.userRepository = userRepository;
+        this.preferenceRepository = preferenceRepository;
+    }
+
+    /** Context of the authentication in the current security context. */
+    public UserContext current() {
+        return resolve(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    public UserContext resolve(Authentication auth) {
+        if (auth == null || !(auth.getPrincipal() instanceof org.springframework.security.core.userdetails.User principal)) {
+            return UserContext.ANONYMOUS;
+        }
+        String username = principal.getUsername();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null
+                && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof UserContext cached
+                && username.equals(cached.username())) {
+            return cached;
+        }
+        User user = userRepository == null ? null : userRepository.findByUsername(username).orElse(null);
+        UserContext context = new UserContext(username, user,
+                u -> preferenceRepository == null ? Optional.empty() : preferenceRepository.findByUser(u));
+        if (attributes != null) attributes.setAttribute(ATTRIBUTE, context, RequestAttributes.SCOPE_REQUEST);
+        return context;
+    }
+}
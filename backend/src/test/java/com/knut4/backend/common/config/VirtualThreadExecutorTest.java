@@ -0,0 +1,59 @@
+package com.knut4.backend.common.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadExecutorTest {
+
+    private final VirtualThreadExecutor executor = new VirtualThreadExecutor("test-v", 2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runsTasksOnVirtualThreads() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        executor.submit(() -> virtual.set(Thread.currentThread().isVirtual())).get(1, TimeUnit.SECONDS);
+        assertThat(virtual).isTrue();
+    }
+
+    @Test
+    void rejectsBeyondInFlightBoundAndFreesPermitsOnCompletion() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (true) { // permits are released right after the task body returns
+            try {
+                executor.submit(() -> {}).get(1, TimeUnit.SECONDS);
+                break;
+            } catch (RejectedExecutionException e) {
+                if (System.nanoTime() > until) throw e;
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
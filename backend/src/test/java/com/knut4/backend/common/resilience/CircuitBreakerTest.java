@@ -0,0 +1,59 @@
+package com.knut4.backend.common.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("test", new CircuitBreaker.Settings(10, 4, 50, Duration.ofMillis(100), 80,
+                Duration.ofSeconds(5), 2), now::get);
+    }
+
+    @Test
+    void opensWhenFailureRateCrossesThreshold() {
+        CircuitBreaker cb = breaker();
+        cb.onSuccess(Duration.ofMillis(10));
+        cb.onSuccess(Duration.ofMillis(10));
+        cb.onError(Duration.ofMillis(10));
+        assertThat(cb.state()).isEqualTo(CircuitBreaker.State.CLOSED); // below minimum calls
+        cb.onError(Duration.ofMillis(10));
+        assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(cb.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void opensOnSlowCalls() {
+        CircuitBreaker cb = breaker();
+        for (int i = 0; i < 4; i++) cb.onSuccess(Duration.ofMillis(500));
+        assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenProbesCloseOrReopen() {
+        CircuitBreaker cb = breaker();
+        for (int i = 0; i < 4; i++) cb.onError(Duration.ZERO);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThat(cb.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(cb.tryAcquirePermission()).isTrue();
+        assertThat(cb.tryAcquirePermission()).isTrue();
+        assertThat(cb.tryAcquirePermission()).isFalse(); // only 2 probes
+        cb.onError(Duration.ZERO);
+        assertThat(cb.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(cb.tryAcquirePermission()).isTrue();
+        assertThat(cb.tryAcquirePermission()).isTrue();
+        cb.onSuccess(Duration.ofMillis(10));
+        cb.onSuccess(Duration.ofMillis(10));
+        assertThat(cb.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(cb.tryAcquirePermission()).isTrue();
+    }
+}
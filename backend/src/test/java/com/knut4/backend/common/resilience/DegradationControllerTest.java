@@ -0,0 +1,78 @@
+package com.knut4.backend.common.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DegradationControllerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger queue = new AtomicInteger();
+    private final AtomicReference<Duration> latency = new AtomicReference<>(Duration.ZERO);
+
+    private DegradationController controller() {
+        return new DegradationController(queue::get, latency::get, new DegradationController.Settings(
+                new DegradationController.Thresholds(10, 3, Duration.ofSeconds(20), Duration.ofSeconds(10)),
+                new DegradationController.Thresholds(30, 10, Duration.ofSeconds(45), Duration.ofSeconds(20)),
+                Duration.ofSeconds(1), Duration.ofSeconds(30)), null, now::get);
+    }
+
+    private DegradationTier after(DegradationController c, Duration elapsed) {
+        now.addAndGet(elapsed.toNanos());
+        return c.tier();
+    }
+
+    @Test
+    void escalatesImmediatelyOnQueueOrLatency() {
+        DegradationController c = controller();
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.NORMAL);
+
+        latency.set(Duration.ofSeconds(25));
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.REDUCED);
+
+        queue.set(40);
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.MINIMAL);
+    }
+
+    @Test
+    void stepsDownOneTierAtATimeAfterCooldown() {
+        DegradationController c = controller();
+        queue.set(40);
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.MINIMAL);
+
+        queue.set(0);
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.MINIMAL); // calm period starts
+        assertThat(after(c, Duration.ofSeconds(20))).isEqualTo(DegradationTier.MINIMAL);
+        assertThat(after(c, Duration.ofSeconds(10))).isEqualTo(DegradationTier.REDUCED);
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.REDUCED); // needs its own cooldown
+        assertThat(after(c, Duration.ofSeconds(30))).isEqualTo(DegradationTier.NORMAL);
+    }
+
+    @Test
+    void hysteresisKeepsTierBetweenExitAndEnterThresholds() {
+        DegradationController c = controller();
+        queue.set(12);
+        assertThat(after(c, Duration.ofSeconds(1))).isEqualTo(DegradationTier.REDUCED);
+
+        queue.set(5); // below enter (10) but above exit (3): no flapping back to NORMAL
+        after(c, Duration.ofSeconds(1));
+        assertThat(after(c, Duration.ofSeconds(60))).isEqualTo(DegradationTier.REDUCED);
+
+        queue.set(2);
+        after(c, Duration.ofSeconds(1));
+        assertThat(after(c, Duration.ofSeconds(30))).isEqualTo(DegradationTier.NORMAL);
+    }
+
+    @Test
+    void evaluatesAtMostOncePerInterval() {
+        DegradationController c = controller();
+        queue.set(12);
+        assertThat(after(c, Duration.ofMillis(500))).isEqualTo(DegradationTier.NORMAL);
+        assertThat(after(c, Duration.ofMillis(500))).isEqualTo(DegradationTier.REDUCED);
+    }
+}
@@ -0,0 +1,130 @@
+package com.knut4.backend.domain.llm;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingLlmClientTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private LlmClient backend(boolean fail) {
+        return new LlmClient() {
+            public List<LlmMenuSuggestion> suggestMenus(List<String> a, String b, Integer c, Double d, Double e, List<String> f, int g) {
+                calls.incrementAndGet();
+                List<LlmMenuSuggestion> out = List.of(new LlmMenuSuggestion("국밥", "든든"));
+                return fail ? LlmFallback.of(out) : out;
+            }
+            public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> a, String b, Integer c, Double d, Double e, String j, int g) {
+                calls.incrementAndGet();
+                return List.of(new StructuredMenuPlace("국밥", List.of("A국밥"), "든든"));
+            }
+        };
+    }
+
+    private CachingLlmClient cache(LlmClient backend, Path dir) {
+        return new CachingLlmClient(backend, 100, Duration.ofMinutes(5), 5000, 500, dir, Runnable::run, null);
+    }
+
+    @Test
+    void equivalentContextsShareOneGeneration() {
+        CachingLlmClient client = cache(backend(false), null);
+
+        client.suggestMenus(List.of("매콤", "든든"), "비", 12000, 37.50001, 127.00001, List.of("B", "A"), 5);
+        List<LlmMenuSuggestion> second = client.suggestMenus(List.of(" 든든", "매콤"), "비", 14000, 37.50002, 127.00002, List.of("A", "B"), 5);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(second).extracting(LlmMenuSuggestion::menu).containsExactly("국밥");
+        client.suggestMenus(List.of("매콤"), "비", 12000, 37.5, 127.0, List.of("A", "B"), 5);
+        assertThat(calls.get()).isEqualTo(2); // different moods -> different key
+    }
+
+    @Test
+    void structuredKeyIgnoresPerCallerDistances() {
+        CachingLlmClient client = cache(backend(false), null);
+
+        client.suggestMenusWithPlaces(List.of(), "맑음", null, 37.5, 127.0, "[{\"name\":\"A국밥\",\"distanceMeters\":120}]", 5);
+        client.suggestMenusWithPlaces(List.of(), "맑음", null, 37.5, 127.0, "[{\"name\":\"A국밥\",\"distanceMeters\":180}]", 5);
+
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fallbackAnswersAreNotCached() {
+        CachingLlmClient client = cache(backend(true), null);
+
+        client.suggestMenus(List.of(), "비", null, 37.5, 127.0, List.of(), 5);
+        client.suggestMenus(List.of(), "비", null, 37.5, 127.0, List.of(), 5);
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(client.estimatedSize()).isZero();
+    }
+
+    @Test
+    void diskTierSurvivesRestart(@TempDir Path dir) {
+        cache(backend(false), dir).suggestMenusWithPlaces(List.of("매콤"), "비", 9000, 37.5, 127.0, "[]", 5);
+
+        List<StructuredMenuPlace> afterRestart = cache(backend(false), dir)
+                .suggestMenusWithPlaces(List.of("매콤"), "비", 9000, 37.5, 127.0, "[]", 5);
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(afterRestart).containsExactly(new StructuredMenuPlace("국밥", List.of("A국밥"), "든든"));
+    }
+
+    @Test
+    void joiningCallerWaitsOnlyUntilItsDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LlmClient slow = new LlmClient() {
+            public List<LlmMenuSuggestion> suggestMenus(List<String> a, String b, Integer c, Double d, Double e, List<String> f, int g) {
+                if (calls.incrementAndGet() > 1) return LlmFallback.of(List.of(new LlmMenuSuggestion("규칙메뉴", "빠름")));
+                try { release.await(5, TimeUnit.SECONDS); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+                return List.of(new LlmMenuSuggestion("국밥", "든든"));
+            }
+        };
+        CachingLlmClient client = cache(slow, null);
+        CompletableFuture<List<LlmMenuSuggestion>> first = CompletableFuture.supplyAsync(
+                () -> client.suggestMenus(List.of(), "비", null, 37.5, 127.0, List.of(), 5));
+        while (calls.get() == 0) Thread.sleep(5);
+
+        long start = System.nanoTime();
+        List<LlmMenuSuggestion> joined = LlmRequestContext.with(
+                new LlmRequestContext(LlmPriority.INTERACTIVE, "bob", Instant.now().plusMillis(100)),
+                () -> client.suggestMenus(List.of(), "비", null, 37.5, 127.0, List.of(), 5));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(joined).extracting(LlmMenuSuggestion::menu).containsExactly("규칙메뉴");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).extracting(LlmMenuSuggestion::menu).containsExactly("국밥");
+    }
+
+    @Test
+    void errorDuringGenerationDoesNotLeaveAHangingEntry() {
+        LlmClient broken = new LlmClient() {
+            public List<LlmMenuSuggestion> suggestMenus(List<String> a, String b, Integer c, Double d, Double e, List<String> f, int g) {
+                if (calls.incrementAndGet() == 1) throw new StackOverflowError("boom");
+                return List.of(new LlmMenuSuggestion("국밥", "든든"));
+            }
+        };
+        CachingLlmClient client = cache(broken, null);
+
+        try {
+            client.suggestMenus(List.of(), "비", null, 37.5, 127.0, List.of(), 5);
+        } catch (StackOverflowError expected) {
+            // propagated to the loading caller
+        }
+        List<LlmMenuSuggestion> next = CompletableFuture.supplyAsync(
+                () -> client.suggestMenus(List.of(), "비", null, 37.5, 127.0, List.of(), 5)).orTimeout(2, TimeUnit.SECONDS).join();
+
+        assertThat(next).extracting(LlmMenuSuggestion::menu).containsExactly("국밥");
+    }
+}
@@ -1,7 +1,12 @@
 package com.knut4.backend.domain.llm;
 
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import static org.junit.jupiter.api.Assertions.*;
 
 /** Tests focused on parsing robustness of HttpOpenAiLikeLlmClient (JSON vs fallback line). */
@@ -35,4 +40,28 @@ public class HttpOpenAiLikeLlmClientTest {
         assertEquals("Not JSON but maybe text line with menu", out.get(0).menu());
         assertEquals(List.of("place1","place2"), out.get(0).places());
     }
+
+    @Test
+    void standaloneConstructorSendsToConfiguredBaseUrl() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        List<String> paths = new CopyOnWriteArrayList<>();
+        server.createContext("/", exchange -> {
+            paths.add(exchange.getRequestURI().getPath());
+            byte[] body = ("data: {\"choices\":[{\"delta\":{\"content\":\"비빔밥 - 든든\\n\"}}]}\n\n"
+                    + "data: [DONE]\n\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+            new HttpOpenAiLikeLlmClient(baseUrl, "test")
+                    .suggestMenus(List.of("든든"), "맑음", 10000, 37.0, 127.0, List.of(), 3);
+            assertEquals(List.of("/v1/chat/completions"), paths);
+        } finally {
+            server.stop(0);
+        }
+    }
 }
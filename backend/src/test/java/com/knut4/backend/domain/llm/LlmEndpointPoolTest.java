@@ -0,0 +1,65 @@
+package com.knut4.backend.domain.llm;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmEndpointPoolTest {
+
+    private static LlmEndpointPool pool(boolean hedge) {
+        return new LlmEndpointPool(WebClient.create(), List.of("http://a", "http://b"),
+                new LlmEndpointPool.Settings(Duration.ZERO, Duration.ofSeconds(1), 2, hedge, 0.95,
+                        Duration.ofMillis(100), Duration.ofMillis(100)), null);
+    }
+
+    @Test
+    void picksLeastOutstandingHealthyEndpoint() {
+        LlmEndpointPool pool = pool(false);
+        LlmEndpointPool.Endpoint a = pool.endpoints().get(0);
+        LlmEndpointPool.Endpoint b = pool.endpoints().get(1);
+
+        a.outstanding.set(3);
+        assertThat(pool.pick(null)).isSameAs(b);
+
+        b.healthy = false;
+        assertThat(pool.pick(null)).isSameAs(a);
+        a.healthy = false;
+        assertThat(pool.pick(null)).isNotNull(); // all down: still try something
+    }
+
+    @Test
+    void consecutiveFailuresMarkEndpointUnhealthy() {
+        LlmEndpointPool pool = pool(false);
+        for (int i = 0; i < 4; i++) {
+            pool.call(client -> Mono.error(new IllegalStateException("500"))).onErrorResume(e -> Mono.empty()).block();
+        }
+        assertThat(pool.endpoints()).anyMatch(e -> !e.healthy);
+    }
+
+    @Test
+    void slowPrimaryIsHedgedToSecondEndpoint() {
+        LlmEndpointPool pool = pool(true);
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        AtomicInteger order = new AtomicInteger();
+        long start = System.nanoTime();
+
+        String out = pool.call(client -> Mono.defer(() -> {
+            boolean first = order.getAndIncrement() == 0;
+            calls.computeIfAbsent(first ? "primary" : "backup", k -> new AtomicInteger()).incrementAndGet();
+            return first ? Mono.just("slow").delayElement(Duration.ofSeconds(2)) : Mono.just("fast");
+        })).block();
+
+        assertThat(out).isEqualTo("fast");
+        assertThat(calls).containsKeys("primary", "backup");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(pool.endpoints()).allMatch(e -> e.outstanding.get() == 0); // loser cancelled
+    }
+}
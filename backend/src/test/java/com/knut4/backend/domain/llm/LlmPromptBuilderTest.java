@@ -0,0 +1,60 @@
+package com.knut4.backend.domain.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmPromptBuilderTest {
+
+    @Test
+    void estimatesAsciiAndHangulDifferently() {
+        assertThat(LlmPromptBuilder.estimateTokens("abcdefgh")).isEqualTo(2);
+        assertThat(LlmPromptBuilder.estimateTokens("김치찌개")).isEqualTo(4);
+        assertThat(LlmPromptBuilder.estimateTokens("")).isZero();
+    }
+
+    @Test
+    void dedupesAndInterleavesCategoriesNearestFirst() {
+        List<LlmPromptBuilder.PlaceRow> ranked = LlmPromptBuilder.rankPlaces(List.of(
+                new LlmPromptBuilder.PlaceRow("A한식", 300, "한식"),
+                new LlmPromptBuilder.PlaceRow("B한식", 100, "한식"),
+                new LlmPromptBuilder.PlaceRow("C중식", 500, "중식"),
+                new LlmPromptBuilder.PlaceRow("B 한식", 50, "한식"), // duplicate of B, nearer
+                new LlmPromptBuilder.PlaceRow("D카페", 900, "카페")));
+
+        assertThat(ranked).extracting(LlmPromptBuilder.PlaceRow::name)
+                .containsExactly("B 한식", "C중식", "D카페", "A한식");
+    }
+
+    @Test
+    void structuredPromptUsesTableAndStaysWithinBudget() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"name\":\"식당").append(i).append("\",\"distanceMeters\":").append(i * 10.5)
+                    .append(",\"category\":\"한식\"}");
+        }
+        json.append(']');
+        LlmPromptBuilder unlimited = new LlmPromptBuilder(10_000);
+        LlmPromptBuilder.Prompt full = unlimited.structured(List.of("매콤"), "비", 10000, json.toString(), 10);
+        assertThat(full.text()).contains("places (name|m|cat):\n식당0|0|한식\n식당1|11|한식\n").doesNotContain("distanceMeters");
+        assertThat(full.included()).isEqualTo(20);
+
+        int budget = full.estimatedTokens() - 20;
+        LlmPromptBuilder.Prompt capped = new LlmPromptBuilder(budget).structured(List.of("매콤"), "비", 10000, json.toString(), 10);
+        assertThat(capped.estimatedTokens()).isLessThanOrEqualTo(budget);
+        assertThat(LlmPromptBuilder.estimateTokens(capped.text())).isLessThanOrEqualTo(budget);
+        assertThat(capped.dropped()).isPositive();
+        assertThat(capped.included() + capped.dropped()).isEqualTo(20);
+    }
+
+    @Test
+    void menusPromptDedupesNearbyNames() {
+        LlmPromptBuilder.Prompt p = new LlmPromptBuilder(10_000)
+                .menus(List.of("든든"), "맑음", null, List.of("A식당", "A식당", "B식당"), 5);
+        assertThat(p.text()).endsWith("Nearby place cues: A식당,B식당");
+        assertThat(p.included()).isEqualTo(2);
+    }
+}
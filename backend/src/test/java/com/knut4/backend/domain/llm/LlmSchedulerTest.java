@@ -0,0 +1,162 @@
+package com.knut4.backend.domain.llm;
+
+import com.knut4.backend.common.resilience.DegradationController;
+import com.knut4.backend.common.resilience.DegradationTier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmSchedulerTest {
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+    private final LlmScheduler scheduler = new LlmScheduler(1, 10,
+            Map.of(LlmPriority.INTERACTIVE, Duration.ofSeconds(5), LlmPriority.RETRY, Duration.ofSeconds(5),
+                    LlmPriority.BACKGROUND, Duration.ofSeconds(5)), null);
+    private final List<String> served = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void servesHigherPriorityFirstAndRotatesUsers() throws Exception {
+        CountDownLatch hold = occupySlot();
+        submitAsync(LlmPriority.BACKGROUND, "warmup", "bg");
+        submitAsync(LlmPriority.INTERACTIVE, "alice", "a1");
+        submitAsync(LlmPriority.INTERACTIVE, "alice", "a2");
+        submitAsync(LlmPriority.INTERACTIVE, "alice", "a3");
+        submitAsync(LlmPriority.INTERACTIVE, "bob", "b1");
+        awaitQueued(5);
+
+        hold.countDown();
+        awaitServed(5);
+
+        assertThat(served).containsExactly("a1", "b1", "a2", "a3", "bg");
+    }
+
+    @Test
+    void waiterPastItsDeadlineGetsFallback() throws Exception {
+        CountDownLatch hold = occupySlot();
+        long start = System.nanoTime();
+
+        String out = scheduler.submit(new LlmRequestContext(LlmPriority.INTERACTIVE, "alice", Instant.now().plusMillis(150)),
+                () -> "model", () -> "fallback");
+
+        assertThat(out).isEqualTo("fallback");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(scheduler.queueSize()).isZero();
+        hold.countDown();
+    }
+
+    @Test
+    void unreachableDeadlineIsNotQueued() {
+        for (int i = 0; i < 5; i++) { // history: a generation takes ~200ms
+            scheduler.submit(new LlmRequestContext(LlmPriority.INTERACTIVE, "alice", null), () -> sleep(200), () -> "fallback");
+        }
+        long start = System.nanoTime();
+
+        String out = scheduler.submit(new LlmRequestContext(LlmPriority.INTERACTIVE, "bob", Instant.now().plusMillis(50)),
+                () -> "model", () -> "fallback");
+
+        assertThat(out).isEqualTo("fallback");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(40));
+    }
+
+    @Test
+    void admitsCallsAgainOnceSlowHistoryGoesStale() {
+        AtomicLong now = new AtomicLong();
+        LlmScheduler slow = new LlmScheduler(1, 10, Map.of(), Duration.ofSeconds(30), null, now::get);
+        for (int i = 0; i < 5; i++) { // history: a generation takes 15 s
+            slow.submit(new LlmRequestContext(LlmPriority.INTERACTIVE, "alice", null), () -> {
+                now.addAndGet(Duration.ofSeconds(15).toNanos());
+                return "model";
+            }, () -> "fallback");
+        }
+        LlmRequestContext tenSeconds = new LlmRequestContext(LlmPriority.INTERACTIVE, "bob", Instant.now().plusSeconds(10));
+        assertThat(slow.submit(tenSeconds, () -> "model", () -> "fallback")).isEqualTo("fallback");
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos()); // only rejections meanwhile: nothing recorded
+        LlmRequestContext later = new LlmRequestContext(LlmPriority.INTERACTIVE, "bob", Instant.now().plusSeconds(10));
+        assertThat(slow.submit(later, () -> "model", () -> "fallback")).isEqualTo("model");
+        assertThat(slow.submit(later, () -> "model", () -> "fallback")).isEqualTo("model"); // history rebuilds from here
+    }
+
+    @Test
+    void degradedTierReturnsToNormalOnceSlowHistoryGoesStale() {
+        AtomicLong now = new AtomicLong();
+        LlmScheduler slow = new LlmScheduler(1, 10,
+                Map.of(LlmPriority.INTERACTIVE, Duration.ofSeconds(60), LlmPriority.RETRY, Duration.ofSeconds(60),
+                        LlmPriority.BACKGROUND, Duration.ofSeconds(60)), Duration.ofSeconds(30), null, now::get);
+        for (int i = 0; i < 5; i++) { // history: a generation takes 15 s
+            slow.submit(new LlmRequestContext(LlmPriority.INTERACTIVE, "alice", null), () -> {
+                now.addAndGet(Duration.ofSeconds(15).toNanos());
+                return "model";
+            }, () -> "fallback");
+        }
+        DegradationController degradation = new DegradationController(slow::queueSize, slow::expectedLatency,
+                new DegradationController.Settings(
+                        new DegradationController.Thresholds(10, 3, Duration.ofSeconds(10), Duration.ofSeconds(5)),
+                        new DegradationController.Thresholds(30, 10, Duration.ofSeconds(45), Duration.ofSeconds(20)),
+                        Duration.ZERO, Duration.ZERO), null);
+        assertThat(degradation.tier()).isEqualTo(DegradationTier.REDUCED);
+
+        // load stops: no generation runs while degraded, so the 15 s history is all the scheduler has
+        assertThat(slow.expectedLatency()).isEqualTo(Duration.ofSeconds(15));
+        assertThat(degradation.tier()).isEqualTo(DegradationTier.REDUCED);
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(slow.expectedLatency()).isZero();
+        degradation.tier(); // calm period starts
+        assertThat(degradation.tier()).isEqualTo(DegradationTier.NORMAL);
+    }
+
+    private CountDownLatch occupySlot() throws InterruptedException {
+        CountDownLatch hold = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        pool.submit(() -> scheduler.submit(new LlmRequestContext(LlmPriority.INTERACTIVE, "holder", null), () -> {
+            running.countDown();
+            try { hold.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            return "held";
+        }, () -> "fallback"));
+        assertThat(running.await(2, TimeUnit.SECONDS)).isTrue();
+        return hold;
+    }
+
+    private void submitAsync(LlmPriority priority, String user, String label) throws InterruptedException {
+        int before = scheduler.queueSize();
+        pool.submit(() -> scheduler.submit(new LlmRequestContext(priority, user, null), () -> {
+            served.add(label);
+            return label;
+        }, () -> "fallback"));
+        awaitQueued(before + 1); // keep enqueue order deterministic
+    }
+
+    private void awaitQueued(int n) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (scheduler.queueSize() < n && System.nanoTime() < until) Thread.sleep(5);
+        assertThat(scheduler.queueSize()).isEqualTo(n);
+    }
+
+    private void awaitServed(int n) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (served.size() < n && System.nanoTime() < until) Thread.sleep(5);
+    }
+
+    private static String sleep(long ms) {
+        try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        return "model";
+    }
+}
@@ -0,0 +1,30 @@
+package com.knut4.backend.domain.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmStreamParsingTest {
+
+    @Test
+    void extractsDeltaContent() {
+        assertThat(LlmStreamParsing.deltaContent("{\"choices\":[{\"delta\":{\"content\":\"비빔\"}}]}")).isEqualTo("비빔");
+        assertThat(LlmStreamParsing.deltaContent("{\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}")).isEmpty();
+        assertThat(LlmStreamParsing.deltaContent("not json")).isEmpty();
+    }
+
+    @Test
+    void keepsOnlyCompleteLines() {
+        assertThat(LlmStreamParsing.completeLines("김치찌개 - 얼큰\n라멘 - 따")).isEqualTo("김치찌개 - 얼큰\n");
+        assertThat(LlmStreamParsing.completeLines("라멘")).isEmpty();
+    }
+
+    @Test
+    void closesArrayAfterLastCompleteElement() {
+        String partial = "```json\n[{\"menu\":\"비빔밥\",\"places\":[{\"name\":\"A}\"}]},{\"menu\":\"라";
+        assertThat(LlmStreamParsing.closedArrayPrefix(partial))
+                .isEqualTo("[{\"menu\":\"비빔밥\",\"places\":[{\"name\":\"A}\"}]}]");
+        assertThat(LlmStreamParsing.closedArrayPrefix("[{\"menu\":\"비")).isNull();
+        assertThat(LlmStreamParsing.closedArrayPrefix("[{\"menu\":\"a\"}] trailing")).isEqualTo("[{\"menu\":\"a\"}]");
+    }
+}
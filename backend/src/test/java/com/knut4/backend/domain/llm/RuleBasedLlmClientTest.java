@@ -0,0 +1,94 @@
+package com.knut4.backend.domain.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleBasedLlmClientTest {
+
+    private final RuleBasedLlmClient rules = new RuleBasedLlmClient();
+
+    @Test
+    void ranksByWeatherMoodAndBudget() {
+        List<LlmMenuSuggestion> out = rules.suggestMenus(List.of("매콤"), "비", 12000, 37.5, 127.0, List.of(), 4);
+
+        assertThat(out).hasSize(4);
+        // rainy + spicy + affordable: spicy soups first
+        assertThat(out.get(0).menu()).isIn("김치찌개", "순두부찌개", "짬뽕", "마라탕", "라볶이");
+        assertThat(out).allSatisfy(s -> {
+            MenuKnowledgeBase.MenuProfile p = MenuKnowledgeBase.defaults().find(s.menu()).orElseThrow();
+            assertThat(p.minPrice()).isLessThanOrEqualTo(12000);
+            assertThat(s.reason()).isNotBlank();
+        });
+    }
+
+    @Test
+    void limitsMenusPerCategory() {
+        List<LlmMenuSuggestion> out = rules.suggestMenus(List.of("든든"), "추움", null, null, null, List.of(), 10);
+
+        Map<String, Long> perCategory = out.stream()
+                .map(s -> MenuKnowledgeBase.defaults().find(s.menu()).orElseThrow().category())
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertThat(out).hasSize(10);
+        assertThat(perCategory.values()).allMatch(c -> c <= RuleBasedLlmClient.MAX_PER_CATEGORY);
+    }
+
+    @Test
+    void structuredPicksNearestMatchingPlaces() {
+        String samples = "[{\"name\":\"먼김치찌개\",\"distanceMeters\":800,\"category\":\"한식\"},"
+                + "{\"name\":\"가까운김치찌개\",\"distanceMeters\":100,\"category\":\"한식\"},"
+                + "{\"name\":\"스타카페\",\"distanceMeters\":50,\"category\":\"카페\"}]";
+
+        List<StructuredMenuPlace> out = rules.suggestMenusWithPlaces(List.of("매콤"), "비", 10000, 37.5, 127.0, samples, 3);
+
+        StructuredMenuPlace kimchi = out.stream().filter(s -> s.menu().equals("김치찌개")).findFirst().orElseThrow();
+        assertThat(kimchi.places()).containsExactly("가까운김치찌개", "먼김치찌개");
+        assertThat(out).allSatisfy(s -> assertThat(s.places()).doesNotContain("스타카페"));
+    }
+
+    @Test
+    void parsesKnowledgeBaseLines() {
+        MenuKnowledgeBase kb = MenuKnowledgeBase.parse(List.of("# comment", "", "국밥|한식|cold,rain|든든|8000|11000|돼지고기|뜨끈한 국밥"));
+
+        MenuKnowledgeBase.MenuProfile p = kb.find("국밥").orElseThrow();
+        assertThat(p.weather()).containsExactlyInAnyOrder("cold", "rain");
+        assertThat(p.allergens()).containsExactly("돼지고기");
+        assertThat(MenuKnowledgeBase.weatherTags("흐리고 비")).contains("rain");
+    }
+
+    @Test
+    void excludesMenusByCatalogueAllergens() {
+        List<LlmMenuSuggestion> menus = List.of(new LlmMenuSuggestion("해물파전", "비"),
+                new LlmMenuSuggestion("설렁탕", "국물"), new LlmMenuSuggestion("LLM만아는메뉴", "?"));
+
+        List<LlmMenuSuggestion> out = rules.withoutAllergens(menus, LlmMenuSuggestion::menu, "새우"::equals);
+
+        assertThat(out).extracting(LlmMenuSuggestion::menu).containsExactly("설렁탕", "LLM만아는메뉴");
+        assertThat(rules.withoutAllergens(menus, LlmMenuSuggestion::menu, a -> false)).isEqualTo(menus);
+    }
+
+    @Test
+    void slowLlmIsHedgedWithRuleEngineAnswer() {
+        LlmClient slow = new LlmClient() {
+            public List<LlmMenuSuggestion> suggestMenus(List<String> a, String b, Integer c, Double d, Double e, List<String> f, int g) {
+                try { Thread.sleep(2000); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+                return List.of(new LlmMenuSuggestion("LLM메뉴", "느림"));
+            }
+        };
+        HedgingLlmClient client = new HedgingLlmClient(slow, rules, Duration.ofMillis(100),
+                r -> new Thread(r).start());
+
+        long start = System.nanoTime();
+        List<LlmMenuSuggestion> out = client.suggestMenus(List.of("달달"), "맑음", 10000, 37.5, 127.0, List.of(), 4);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(LlmFallback.isFallback(out)).isTrue();
+        assertThat(out).extracting(LlmMenuSuggestion::menu).doesNotContain("LLM메뉴").isNotEmpty();
+    }
+}
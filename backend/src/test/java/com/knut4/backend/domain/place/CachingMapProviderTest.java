@@ -0,0 +1,80 @@
+package com.knut4.backend.domain.place;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingMapProviderTest {
+
+    @Test
+    void nearbyIdenticalSearchesShareOneUpstreamCall() {
+        AtomicInteger calls = new AtomicInteger();
+        MapProvider upstream = (k, lat, lon, r) -> {
+            calls.incrementAndGet();
+            return List.of(new PlaceResult("PlaceA", 37.5001, 127.0001, "addr", 0));
+        };
+        CachingMapProvider cache = new CachingMapProvider(upstream, 250, 100, Duration.ofMinutes(10), Duration.ofMinutes(5), Runnable::run, null);
+
+        var first = cache.search("맛집", 37.50000, 127.00000, 1500);
+        var second = cache.search(" 맛집 ", 37.50003, 127.00002, 1400); // same cell, same radius bucket
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(first).hasSize(1);
+        // distance recomputed against each caller origin
+        assertThat(second.get(0).distanceMeters()).isNotEqualTo(first.get(0).distanceMeters());
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        MapProvider upstream = (k, lat, lon, r) -> { calls.incrementAndGet(); return List.of(); };
+        CachingMapProvider cache = new CachingMapProvider(upstream, 250, 100, Duration.ofMinutes(10), Duration.ofMinutes(5), Runnable::run, null);
+        cache.search("맛집", 37.5, 127.0, 1500);
+        cache.search("맛집", 37.5, 127.0, 1500);
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @Test
+    void dropsCachedPlacesBeyondTheCallersRadius() {
+        MapProvider upstream = (k, lat, lon, r) -> List.of(
+                new PlaceResult("Near", 37.5001, 127.0001, "addr", 0),
+                new PlaceResult("Far", 37.5001 + 1200 / 111_320.0, 127.0001, "addr", 0)); // ~1.2 km north
+        CachingMapProvider cache = new CachingMapProvider(upstream, 250, 100, Duration.ofMinutes(10), Duration.ofMinutes(5), Runnable::run, null);
+
+        var wide = cache.search("맛집", 37.5, 127.0, 1500);
+        var narrow = cache.search("맛집", 37.5, 127.0, 1100); // same radius bucket -> same entry
+
+        assertThat(cache.estimatedSize()).isEqualTo(1);
+        assertThat(wide).extracting(PlaceResult::name).containsExactly("Near", "Far");
+        assertThat(narrow).extracting(PlaceResult::name).containsExactly("Near");
+    }
+
+    @Test
+    void cancelledWaiterDoesNotAbortTheSharedLoad() {
+        AtomicInteger calls = new AtomicInteger();
+        MapProvider slow = new MapProvider() {
+            public List<PlaceResult> search(String k, double lat, double lon, int r) { throw new UnsupportedOperationException(); }
+            public Mono<List<PlaceResult>> searchAsync(String k, double lat, double lon, int r) {
+                return Mono.defer(() -> {
+                    calls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(300)).thenReturn(List.of(new PlaceResult("PlaceA", 37.5001, 127.0001, "addr", 0)));
+                });
+            }
+        };
+        CachingMapProvider cache = new CachingMapProvider(slow, 250, 100, Duration.ofMinutes(10), Duration.ofMinutes(5), Runnable::run, null);
+
+        Mono<List<PlaceResult>> impatient = cache.searchAsync("맛집", 37.5, 127.0, 1500).timeout(Duration.ofMillis(50), Mono.just(List.of()));
+        Mono<List<PlaceResult>> patient = cache.searchAsync("맛집", 37.5, 127.0, 1500);
+        var results = Mono.zip(impatient, patient).block();
+
+        assertThat(results.getT1()).isEmpty(); // gave up (cancelled its subscription)
+        assertThat(results.getT2()).extracting(PlaceResult::name).containsExactly("PlaceA");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(cache.estimatedSize()).isEqualTo(1);
+    }
+}
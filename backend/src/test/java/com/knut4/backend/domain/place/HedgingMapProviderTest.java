@@ -0,0 +1,61 @@
+package com.knut4.backend.domain.place;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HedgingMapProviderTest {
+
+    private static MapProvider delayed(String name, long delayMs, AtomicInteger calls) {
+        return new MapProvider() {
+            public List<PlaceResult> search(String k, double lat, double lon, int r) { throw new UnsupportedOperationException(); }
+            public Mono<List<PlaceResult>> searchAsync(String k, double lat, double lon, int r) {
+                return Mono.defer(() -> {
+                    calls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(delayMs)).thenReturn(List.of(new PlaceResult(name, 37.5, 127.0, "addr", 10)));
+                });
+            }
+        };
+    }
+
+    @Test
+    void fastPrimaryDoesNotFireSecondary() {
+        AtomicInteger secondaryCalls = new AtomicInteger();
+        var provider = new HedgingMapProvider(delayed("N", 10, new AtomicInteger()), delayed("K", 10, secondaryCalls),
+                false, 0.95, Duration.ofMillis(200), Duration.ofMillis(200));
+        assertThat(provider.search("맛집", 37.5, 127.0, 1000)).extracting(PlaceResult::name).containsExactly("N");
+        assertThat(secondaryCalls.get()).isZero();
+    }
+
+    @Test
+    void slowPrimaryIsHedged() {
+        var provider = new HedgingMapProvider(delayed("N", 2000, new AtomicInteger()), delayed("K", 10, new AtomicInteger()),
+                false, 0.95, Duration.ofMillis(100), Duration.ofMillis(100));
+        long start = System.nanoTime();
+        assertThat(provider.search("맛집", 37.5, 127.0, 1000)).extracting(PlaceResult::name).containsExactly("K");
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1000);
+    }
+
+    @Test
+    void emptyPrimaryFailsOverImmediately() {
+        MapProvider down = (k, lat, lon, r) -> List.of();
+        var provider = new HedgingMapProvider(down, delayed("K", 10, new AtomicInteger()),
+                false, 0.95, Duration.ofSeconds(5), Duration.ofSeconds(5));
+        long start = System.nanoTime();
+        assertThat(provider.search("맛집", 37.5, 127.0, 1000)).extracting(PlaceResult::name).containsExactly("K");
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2000);
+    }
+
+    @Test
+    void mergeModeDedupesByNameAndCoordinates() {
+        var merged = HedgingMapProvider.dedupe(
+                List.of(new PlaceResult("A식당", 37.5, 127.0, "addr", 10), new PlaceResult("B식당", 37.6, 127.1, "addr", 50)),
+                List.of(new PlaceResult("A식당", 37.5002, 127.0002, "", 12)));
+        assertThat(merged).extracting(PlaceResult::name).containsExactly("A식당", "B식당");
+    }
+}
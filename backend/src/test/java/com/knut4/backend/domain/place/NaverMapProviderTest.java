@@ -3,21 +3,59 @@ package com.knut4.backend.domain.place;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 public class NaverMapProviderTest {
     @Test
     void returnsEmptyListWhenNoCredentials() {
-        NaverMapProvider provider = new NaverMapProvider(WebClient.builder());
+        NaverMapProvider provider = new NaverMapProvider(WebClient.create());
         assertThat(provider.search("치킨", 37.0, 127.0, 500)).isEmpty();
     }
 
     @Test
     void haversineRoughDistance() {
-        double d = NaverMapProvider.haversineMeters(37.0,127.0,37.0009,127.0009);
+        double d = PlaceResult.haversineMeters(37.0,127.0,37.0009,127.0009);
         assertThat(d).isBetween(100.0, 150.0); // ~126m
     }
 
+    @Test
+    void parsesScaledCoordinates() {
+        assertThat(NaverMapProvider.parseCoordinate("1269783882")).isCloseTo(126.9783882, within(1e-9));
+        assertThat(NaverMapProvider.parseCoordinate("37.5666103")).isCloseTo(37.5666103, within(1e-9));
+    }
+
+    @Test
+    void mergesPagesFiltersByRadiusAndSortsByDistance() {
+        NaverMapProvider.LocalSearchResponse random = page(
+                item("<b>먼집</b>", "1270300000", "375000000"),      // ~2.6km away
+                item("가까운집", "1270010000", "375000000"));
+        NaverMapProvider.LocalSearchResponse comment = page(
+                item("가까운 집", "1270010000", "375000000"),         // same place, other ranking
+                item("옆집", "1270005000", "375000000"));
+
+        List<PlaceResult> out = NaverMapProvider.toPlaceResults(List.of(random, comment), 37.5, 127.0, 1000);
+
+        assertThat(out).extracting(PlaceResult::name).containsExactly("옆집", "가까운집");
+        assertThat(out.get(0).distanceMeters()).isLessThan(out.get(1).distanceMeters());
+    }
+
+    private static NaverMapProvider.LocalSearchResponse page(NaverMapProvider.Item... items) {
+        NaverMapProvider.LocalSearchResponse r = new NaverMapProvider.LocalSearchResponse();
+        r.items = List.of(items);
+        return r;
+    }
+
+    private static NaverMapProvider.Item item(String title, String mapx, String mapy) {
+        NaverMapProvider.Item i = new NaverMapProvider.Item();
+        i.title = title;
+        i.mapx = mapx;
+        i.mapy = mapy;
+        return i;
+    }
+
     @Test
     void sanitizeRemovesTags() {
         assertThat(NaverMapProvider.sanitize("<b>맛집</b>")).isEqualTo("맛집");
@@ -0,0 +1,97 @@
+package com.knut4.backend.domain.place;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Runs NaverMapProvider against a local stub of the Naver local search API behind the rate limiter. */
+public class RateLimitedMapProviderTest {
+
+    private HttpServer server;
+    private final List<String> receivedQueries = new CopyOnWriteArrayList<>();
+    private NaverMapProvider naver;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/search/local.json", exchange -> {
+            String query = exchange.getRequestURI().getRawQuery();
+            String keyword = URLDecoder.decode(query.replaceAll(".*query=([^&]*).*", "$1"), StandardCharsets.UTF_8);
+            receivedQueries.add(keyword);
+            byte[] body = ("{\"items\":[{\"title\":\"<b>" + keyword + "</b>\",\"address\":\"addr\",\"roadAddress\":\"road\","
+                    + "\"mapx\":\"127.0001\",\"mapy\":\"37.5001\"}]}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        naver = new NaverMapProvider(WebClient.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/search/local.json"));
+        ReflectionTestUtils.setField(naver, "clientId", "id");
+        ReflectionTestUtils.setField(naver, "clientSecret", "secret");
+    }
+
+    @AfterEach
+    void stopStub() { server.stop(0); }
+
+    @Test
+    void throttlesToConfiguredRate() {
+        var limited = new RateLimitedMapProvider(naver, "naver", 5, 1, 0, 100, Duration.ofSeconds(5), null);
+        long start = System.nanoTime();
+        List<List<PlaceResult>> results = Flux.range(0, 6)
+                .flatMap(i -> limited.searchAsync("맛집" + i, 37.5, 127.0, 1000))
+                .collectList().block();
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        assertThat(results).hasSize(6).allSatisfy(r -> assertThat(r).hasSize(1));
+        assertThat(receivedQueries).hasSize(6);
+        assertThat(ms).isGreaterThanOrEqualTo(900); // 1 burst + 5 more at 5/s
+        limited.shutdown();
+    }
+
+    @Test
+    void rejectsOnceDailyQuotaIsUsed() {
+        var limited = new RateLimitedMapProvider(naver, "naver", 100, 10, 2, 100, Duration.ofSeconds(1), null);
+        assertThat(limited.search("a", 37.5, 127.0, 1000)).hasSize(1);
+        assertThat(limited.search("b", 37.5, 127.0, 1000)).hasSize(1);
+        assertThat(limited.search("c", 37.5, 127.0, 1000)).isEmpty();
+        assertThat(receivedQueries).containsExactly("a", "b");
+        limited.shutdown();
+    }
+
+    @Test
+    void highPriorityLookupsAreServedBeforeSampling() {
+        var limited = new RateLimitedMapProvider(naver, "naver", 5, 1, 0, 100, Duration.ofSeconds(5), null);
+        limited.search("first", 37.5, 127.0, 1000); // drains the burst
+        Mono<List<PlaceResult>> low = limited.searchAsync("sampling", 37.5, 127.0, 1000).contextWrite(SearchPriority.LOW.asContext());
+        Mono<List<PlaceResult>> high = limited.searchAsync("menu", 37.5, 127.0, 1000).contextWrite(SearchPriority.HIGH.asContext());
+        Flux.merge(low, high).collectList().block();
+        assertThat(receivedQueries).containsExactly("first", "menu", "sampling");
+        limited.shutdown();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        var limited = new RateLimitedMapProvider(naver, "naver", 1, 1, 0, 1, Duration.ofSeconds(5), null);
+        List<List<PlaceResult>> results = Flux.range(0, 3)
+                .flatMap(i -> limited.searchAsync("q" + i, 37.5, 127.0, 1000))
+                .collectList().block();
+        // one immediate, one queued, one rejected (empty)
+        assertThat(results).filteredOn(List::isEmpty).hasSize(1);
+        assertThat(receivedQueries).hasSize(2);
+        limited.shutdown();
+    }
+}
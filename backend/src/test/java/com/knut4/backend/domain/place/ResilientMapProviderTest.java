@@ -0,0 +1,64 @@
+package com.knut4.backend.domain.place;
+
+import com.knut4.backend.common.resilience.CircuitBreaker;
+import com.knut4.backend.common.resilience.ResilienceRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResilientMapProviderTest {
+
+    @Test
+    void failingUpstreamOpensCircuitAndThenFailsFast() {
+        AtomicInteger calls = new AtomicInteger();
+        MapProvider failing = new MapProvider() {
+            @Override
+            public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+                return List.of();
+            }
+
+            @Override
+            public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+                calls.incrementAndGet();
+                return Mono.error(new IllegalStateException("upstream 500"));
+            }
+        };
+        ResilientMapProvider provider = new ResilientMapProvider(failing, "naver", ResilienceRegistry.standalone(),
+                Duration.ofSeconds(1));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(provider.search("국밥", 37.5, 127.0, 1000)).isEmpty();
+        }
+        assertThat(provider.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        int before = calls.get();
+        long start = System.nanoTime();
+        assertThat(provider.search("국밥", 37.5, 127.0, 1000)).isEmpty();
+        assertThat(calls.get()).isEqualTo(before); // short-circuited, upstream not touched
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(200));
+    }
+
+    @Test
+    void slowUpstreamTimesOutToEmptyList() {
+        MapProvider hanging = new MapProvider() {
+            @Override
+            public List<PlaceResult> search(String keyword, double latitude, double longitude, int radiusMeters) {
+                return List.of();
+            }
+
+            @Override
+            public Mono<List<PlaceResult>> searchAsync(String keyword, double latitude, double longitude, int radiusMeters) {
+                return Mono.never();
+            }
+        };
+        ResilientMapProvider provider = new ResilientMapProvider(hanging, "kakao", ResilienceRegistry.standalone(),
+                Duration.ofMillis(100));
+
+        assertThat(provider.search("국밥", 37.5, 127.0, 1000)).isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package com.knut4.backend.domain.place;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightMapProviderTest {
+
+    @Test
+    void concurrentIdenticalSearchesShareOneCall() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        MapProvider slow = new MapProvider() {
+            public List<PlaceResult> search(String k, double lat, double lon, int r) { throw new UnsupportedOperationException(); }
+            public Mono<List<PlaceResult>> searchAsync(String k, double lat, double lon, int r) {
+                return Mono.defer(() -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(200)).thenReturn(List.of(new PlaceResult("PlaceA", 37.5, 127.0, "addr", 0)));
+                });
+            }
+        };
+        SingleFlightMapProvider provider = new SingleFlightMapProvider(slow, 250, null);
+
+        List<List<PlaceResult>> results = Flux.range(0, 10)
+                .flatMap(i -> provider.searchAsync("맛집", 37.5 + i * 0.00001, 127.0, 1500))
+                .collectList()
+                .block();
+
+        assertThat(results).hasSize(10).allSatisfy(r -> assertThat(r).hasSize(1));
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(provider.collapsedCount()).isEqualTo(9);
+
+        // once the flight has landed, a new search goes upstream again
+        provider.search("맛집", 37.5, 127.0, 1500);
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void sharedCallCoversEveryCallersRadius() {
+        double cellDegrees = SearchKey.cellDegrees(250);
+        SearchKey key = SearchKey.of("맛집", 37.5, 127.0, 600, cellDegrees);
+        double lat = key.centerLatitude(), lon = key.centerLongitude();
+        PlaceResult near = new PlaceResult("Near", lat, lon, "addr", 0);
+        PlaceResult far = new PlaceResult("Far", lat + 900 / 111_320.0, lon, "addr", 0); // ~900 m north
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        MapProvider byRadius = new MapProvider() {
+            public List<PlaceResult> search(String k, double la, double lo, int r) { throw new UnsupportedOperationException(); }
+            public Mono<List<PlaceResult>> searchAsync(String k, double la, double lo, int r) {
+                return Mono.defer(() -> {
+                    upstreamCalls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(200)).thenReturn(r >= 900 ? List.of(near, far) : List.of(near));
+                });
+            }
+        };
+        SingleFlightMapProvider provider = new SingleFlightMapProvider(byRadius, 250, null);
+
+        // same key (radius bucket 1000); the narrower search leads, the wider one joins its flight
+        List<List<PlaceResult>> results = Flux.merge(
+                        provider.searchAsync("맛집", lat, lon, 600),
+                        Mono.delay(Duration.ofMillis(50)).then(provider.searchAsync("맛집", lat, lon, 1000)))
+                .collectSortedList((a, b) -> Integer.compare(a.size(), b.size()))
+                .block();
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(results.get(0)).extracting(PlaceResult::name).containsExactly("Near");
+        assertThat(results.get(1)).extracting(PlaceResult::name).containsExactly("Near", "Far");
+    }
+}
@@ -0,0 +1,65 @@
+package com.knut4.backend.domain.preference.service;
+
+import com.knut4.backend.domain.preference.entity.Preference;
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PreferenceMatcherTest {
+
+    @Test
+    void findsAnyTermInOneScan() {
+        PreferenceMatcher matcher = PreferenceMatcher.compile(List.of("새우", "우유", "he", "she", "hers"));
+
+        assertThat(matcher.firstMatch("새우튀김")).isEqualTo("새우");
+        assertThat(matcher.firstMatch("딸기우유")).isEqualTo("우유");
+        assertThat(matcher.firstMatch("ushers")).isEqualTo("she"); // overlapping terms via failure links
+        assertThat(matcher.matches("김치찌개")).isFalse();
+    }
+
+    @Test
+    void comparesNormalizedText() {
+        PreferenceMatcher matcher = PreferenceMatcher.compile(List.of("Peanut Butter", "새우튀김"));
+
+        assertThat(matcher.matches("PEANUTBUTTER 샌드위치")).isTrue();
+        assertThat(matcher.matches("새우 튀김 덮밥")).isTrue();
+        assertThat(matcher.matches(Normalizer.normalize("새우튀김", Normalizer.Form.NFD))).isTrue(); // decomposed jamo
+    }
+
+    @Test
+    void rejectKeepsOrderOfNonMatchingItems() {
+        PreferenceMatcher matcher = PreferenceMatcher.compile(List.of("새우", " ", ""));
+
+        assertThat(matcher.reject(List.of("새우깡", "라면", "감바스 새우", "김밥"), s -> s)).containsExactly("라면", "김밥");
+        assertThat(PreferenceMatcher.compile(List.of(" ")).isEmpty()).isTrue();
+    }
+
+    @Test
+    void cacheRebuildsOnlyWhenPreferenceChanges() {
+        PreferenceMatcherCache cache = new PreferenceMatcherCache(10);
+        Preference pref = mock(Preference.class);
+        OffsetDateTime v1 = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+        when(pref.getId()).thenReturn(1L);
+        when(pref.getUpdatedAt()).thenReturn(v1);
+        when(pref.dislikeArray()).thenReturn(new String[]{"오이"});
+        when(pref.allergyArray()).thenReturn(new String[]{"땅콩"});
+
+        PreferenceMatcher first = cache.forPreference(pref);
+        assertThat(cache.forPreference(pref)).isSameAs(first);
+        assertThat(first.matches("땅콩버터")).isTrue();
+
+        when(pref.getUpdatedAt()).thenReturn(v1.plusMinutes(1));
+        when(pref.dislikeArray()).thenReturn(new String[]{"가지"});
+        PreferenceMatcher second = cache.forPreference(pref);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.matches("가지볶음")).isTrue();
+
+        cache.invalidate(pref);
+        assertThat(cache.forPreference(pref)).isNotSameAs(second);
+    }
+}
@@ -0,0 +1,116 @@
+package com.knut4.backend.domain.recommendation;
+
+import com.knut4.backend.common.resilience.Deadline;
+import com.knut4.backend.domain.llm.LlmClient;
+import com.knut4.backend.domain.llm.LlmMenuSuggestion;
+import com.knut4.backend.domain.llm.StructuredMenuPlace;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MenuSuggestionGeneratorTest {
+
+    private static final MenuSuggestionGenerator.Input INPUT = new MenuSuggestionGenerator.Input(
+            List.of("매콤"), "맑음", 10000, 37.5, 127.0, List.of("PlaceA"), "[]", 5);
+
+    private final AtomicInteger plainCalls = new AtomicInteger();
+    private final AtomicInteger structuredCalls = new AtomicInteger();
+
+    private LlmClient llm(List<StructuredMenuPlace> structured, long delayMs) {
+        return llm(structured, delayMs, delayMs);
+    }
+
+    private LlmClient llm(List<StructuredMenuPlace> structured, long plainDelayMs, long structuredDelayMs) {
+        return new LlmClient() {
+            public List<LlmMenuSuggestion> suggestMenus(List<String> a, String b, Integer c, Double d, Double e, List<String> f, int g) {
+                plainCalls.incrementAndGet();
+                sleep(plainDelayMs);
+                return List.of(new LlmMenuSuggestion("김치찌개", "plain"));
+            }
+            public List<StructuredMenuPlace> suggestMenusWithPlaces(List<String> a, String b, Integer c, Double d, Double e, String j, int g) {
+                structuredCalls.incrementAndGet();
+                sleep(structuredDelayMs);
+                return structured;
+            }
+        };
+    }
+
+    @Test
+    void singleModeDerivesSuggestionsFromOneStructuredCall() {
+        var gen = new MenuSuggestionGenerator(llm(List.of(new StructuredMenuPlace("라멘", List.of("PlaceA"), "")), 0),
+                LlmCallMode.SINGLE, Runnable::run);
+
+        MenuSuggestionGenerator.Result r = gen.generate(INPUT, null);
+
+        assertThat(plainCalls.get()).isZero();
+        assertThat(structuredCalls.get()).isEqualTo(1);
+        assertThat(r.suggestions()).containsExactly(new LlmMenuSuggestion("라멘", "추천"));
+        assertThat(r.structured()).hasSize(1);
+    }
+
+    @Test
+    void singleModeFallsBackToPlainCallWhenStructuredIsEmpty() {
+        var gen = new MenuSuggestionGenerator(llm(List.of(), 0), LlmCallMode.SINGLE, Runnable::run);
+
+        MenuSuggestionGenerator.Result r = gen.generate(INPUT, null);
+
+        assertThat(plainCalls.get()).isEqualTo(1);
+        assertThat(r.suggestions()).extracting(LlmMenuSuggestion::menu).containsExactly("김치찌개");
+        assertThat(r.structured()).isNull();
+    }
+
+    @Test
+    void parallelModeOverlapsBothCalls() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var gen = new MenuSuggestionGenerator(llm(List.of(new StructuredMenuPlace("라멘", List.of(), "따뜻")), 300),
+                    LlmCallMode.PARALLEL, executor);
+            long start = System.nanoTime();
+
+            MenuSuggestionGenerator.Result r = gen.generate(INPUT, null);
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertThat(elapsedMs).isLessThan(550); // ~300 when overlapped, ~600 back to back
+            assertThat(r.suggestions()).extracting(LlmMenuSuggestion::menu).containsExactly("김치찌개");
+            assertThat(r.structured()).extracting(StructuredMenuPlace::menu).containsExactly("라멘");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parallelModeStopsWaitingForStructuredAtTheDeadline() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var gen = new MenuSuggestionGenerator(llm(List.of(new StructuredMenuPlace("라멘", List.of(), "따뜻")), 0, 3000),
+                    LlmCallMode.PARALLEL, executor);
+            long start = System.nanoTime();
+
+            MenuSuggestionGenerator.Result r = gen.generate(INPUT, Deadline.after(Duration.ofMillis(200)));
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertThat(elapsedMs).isLessThan(1500);
+            assertThat(r.suggestions()).extracting(LlmMenuSuggestion::menu).containsExactly("김치찌개");
+            assertThat(r.structured()).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void parsesModeLeniently() {
+        assertThat(LlmCallMode.from("parallel")).isEqualTo(LlmCallMode.PARALLEL);
+        assertThat(LlmCallMode.from(null)).isEqualTo(LlmCallMode.SINGLE);
+        assertThat(LlmCallMode.from("bogus")).isEqualTo(LlmCallMode.SINGLE);
+    }
+
+    private static void sleep(long ms) {
+        try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
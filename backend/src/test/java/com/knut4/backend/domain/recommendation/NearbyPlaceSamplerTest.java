@@ -0,0 +1,84 @@
+package com.knut4.backend.domain.recommendation;
+
+import com.knut4.backend.common.resilience.Deadline;
+import com.knut4.backend.domain.place.MapProvider;
+import com.knut4.backend.domain.place.PlaceResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Parallel prefetch: total latency ~ slowest call, late calls are dropped at the stage deadline. */
+public class NearbyPlaceSamplerTest {
+
+    @Test
+    void runsSearchesInParallel() {
+        MapProvider slow = (k, lat, lon, r) -> {
+            sleep(200);
+            return List.of(new PlaceResult(k + "집", lat, lon, "addr", 10));
+        };
+        NearbyPlaceSampler sampler = new NearbyPlaceSampler(slow, Duration.ofSeconds(2));
+        long start = System.nanoTime();
+        List<PlaceResult> out = sampler.sample(37.0, 127.0, List.of("맛집", "음식", "한식"));
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        assertThat(out).extracting(PlaceResult::name).containsExactly("맛집집", "음식집", "한식집");
+        // 3 sampling + 3 detail calls of 200ms each would take 1200ms sequentially
+        assertThat(ms).isLessThan(1000);
+    }
+
+    @Test
+    void keepsPartialResultsWhenDeadlineHits() {
+        MapProvider mixed = (k, lat, lon, r) -> {
+            if (k.startsWith("느림")) sleep(2000);
+            return List.of(new PlaceResult(k, lat, lon, "addr", 10));
+        };
+        NearbyPlaceSampler sampler = new NearbyPlaceSampler(mixed, Duration.ofMillis(300));
+        List<PlaceResult> out = sampler.sample(37.0, 127.0, List.of("맛집", "느림"));
+        assertThat(out).extracting(PlaceResult::name).containsExactly("맛집");
+    }
+
+    @Test
+    void requestDeadlineShortensStagesAndSkipsThemOncePassed() {
+        List<String> calls = new java.util.concurrent.CopyOnWriteArrayList<>();
+        MapProvider mixed = (k, lat, lon, r) -> {
+            calls.add(k);
+            if (k.startsWith("느림")) sleep(2000);
+            return List.of(new PlaceResult(k, lat, lon, "addr", 10));
+        };
+        NearbyPlaceSampler sampler = new NearbyPlaceSampler(mixed, Duration.ofSeconds(5));
+        long start = System.nanoTime();
+        List<PlaceResult> out = sampler.sample(37.0, 127.0, List.of("맛집", "느림"), Deadline.after(Duration.ofMillis(300)));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(out).extracting(PlaceResult::name).containsExactly("맛집");
+
+        calls.clear();
+        assertThat(sampler.sample(37.0, 127.0, List.of("맛집"), Deadline.after(Duration.ZERO))).isEmpty();
+        assertThat(calls).isEmpty();
+    }
+
+    @Test
+    void reusesSampledResultsAndOnlyLooksUpIncompletePlaces() {
+        List<String> calls = new java.util.concurrent.CopyOnWriteArrayList<>();
+        MapProvider provider = (k, lat, lon, r) -> {
+            calls.add(k);
+            return switch (k) {
+                case "맛집" -> List.of(new PlaceResult("A식당", 37.5, 127.0, "addr A", 10),
+                        new PlaceResult("B식당", 37.51, 127.01, "", 20));
+                case "음식" -> List.of(new PlaceResult("A식당", 37.5001, 127.0001, "addr A", 11)); // duplicate of A
+                case "B식당" -> List.of(new PlaceResult("B식당", 37.51, 127.01, "addr B", 20));
+                default -> List.of();
+            };
+        };
+        NearbyPlaceSampler sampler = new NearbyPlaceSampler(provider, Duration.ofSeconds(2));
+        List<PlaceResult> out = sampler.sample(37.5, 127.0, List.of("맛집", "음식"));
+        assertThat(out).extracting(PlaceResult::name).containsExactly("A식당", "B식당");
+        assertThat(out.get(1).address()).isEqualTo("addr B");
+        assertThat(calls).containsExactlyInAnyOrder("맛집", "음식", "B식당");
+    }
+
+    private static void sleep(long ms) {
+        try { Thread.sleep(ms); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
@@ -12,10 +12,13 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -62,4 +65,34 @@ class RecommendationIntegrationTest {
                 .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("스트리밍 추천: 메뉴 카드 이벤트 후 complete 이벤트")
+    void recommendStreamEmitsCardsThenComplete() throws Exception {
+        SignUpRequest su = new SignUpRequest("stream1234", "password123", "1999-01-01");
+        mockMvc.perform(post("/api/public/auth/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(su)))
+                .andExpect(status().isOk());
+        String tokenJson = mockMvc.perform(post("/api/public/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest("stream1234", "password123"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String accessToken = objectMapper.readTree(tokenJson).get("accessToken").asText();
+
+        RecommendationRequest req = new RecommendationRequest("sunny", List.of("매콤"), 10000, 37.1, 126.9);
+        MvcResult started = mockMvc.perform(post("/api/private/recommendations/stream")
+                .header("Authorization", "Bearer " + accessToken)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        String body = started.getResponse().getContentAsString();
+        assertThat(body).contains("event:menu");
+        assertThat(body.indexOf("event:complete")).isGreaterThan(body.lastIndexOf("event:menu"));
+    }
 }
@@ -8,8 +8,11 @@ import com.knut4.backend.domain.recommendation.repository.RecommendationHistoryR
 import com.knut4.backend.domain.recommendation.repository.SharedRecommendationRepository;
 import com.knut4.backend.domain.preference.repository.PreferenceRepository;
 import com.knut4.backend.domain.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,11 +28,82 @@ public class RecommendationServiceTest {
     PreferenceRepository preferenceRepository = mock(PreferenceRepository.class);
         when(mapProvider.search(anyString(), anyDouble(), anyDouble(), anyInt()))
                 .thenReturn(List.of(new PlaceResult("PlaceA", 37.0, 127.0, "Addr", 120.0)));
+        when(mapProvider.searchAsync(anyString(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(Mono.just(List.of(new PlaceResult("PlaceA", 37.0, 127.0, "Addr", 120.0))));
 
     RecommendationService service = new RecommendationService(mapProvider, historyRepository, null, userRepository, sharedRepository, preferenceRepository, null, false);
         RecommendationRequest req = new RecommendationRequest("sunny", List.of("매콤"), 10000, 37.1, 126.9);
         RecommendationResponse resp = service.recommend(req);
-        assertThat(resp.menuRecommendations()).hasSize(1);
-        assertThat(resp.menuRecommendations().get(0).places()).hasSize(1);
+        // no LLM configured: menus come from the rule engine (top 4)
+        assertThat(resp.menuRecommendations()).hasSize(4);
+        assertThat(resp.menuRecommendations()).allSatisfy(m -> assertThat(m.places()).hasSize(1));
+    }
+
+    @Test
+    void outOfBudgetLookupReturnsPartialDegradedResponse() {
+        MapProvider mapProvider = mock(MapProvider.class);
+        when(mapProvider.searchAsync(anyString(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(Mono.just(List.of(new PlaceResult("PlaceA", 37.0, 127.0, "Addr", 120.0)))
+                        .delayElement(Duration.ofSeconds(5)));
+        RecommendationService service = new RecommendationService(mapProvider, null, null, null, null, null, null, false);
+        RecommendationRequest req = new RecommendationRequest("sunny", List.of("매콤"), 10000, 37.1, 126.9);
+
+        long start = System.nanoTime();
+        RecommendationResponse resp = service.recommend(req, Duration.ofMillis(300), (card, index) -> {});
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(resp.degraded()).isTrue();
+        assertThat(resp.menuRecommendations()).isNotEmpty();
+        assertThat(resp.menuRecommendations()).allSatisfy(m -> assertThat(m.places()).isEmpty());
+    }
+
+    @Test
+    void perMenuLookupsRunConcurrentlyAndFailOnlyTheirOwnCard() {
+        MapProvider mapProvider = mock(MapProvider.class);
+        java.util.concurrent.atomic.AtomicInteger call = new java.util.concurrent.atomic.AtomicInteger();
+        when(mapProvider.searchAsync(anyString(), anyDouble(), anyDouble(), anyInt())).thenAnswer(inv -> {
+            String keyword = inv.getArgument(0);
+            if (call.getAndIncrement() == 1) return Mono.error(new IllegalStateException("upstream 500"));
+            return Mono.just(List.of(new PlaceResult(keyword + " 집", 37.0, 127.0, "Addr", 120.0)))
+                    .delayElement(Duration.ofMillis(300));
+        });
+        RecommendationService service = new RecommendationService(mapProvider, null, null, null, null, null, null, false);
+        RecommendationRequest req = new RecommendationRequest("sunny", List.of("매콤"), 10000, 37.1, 126.9);
+        List<Integer> order = new java.util.concurrent.CopyOnWriteArrayList<>();
+
+        long start = System.nanoTime();
+        RecommendationResponse resp = service.recommend(req, null, (card, index) -> order.add(index));
+
+        // 4 lookups of 300 ms each would take 1200 ms in sequence
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1000));
+        assertThat(resp.menuRecommendations()).hasSize(4);
+        assertThat(resp.menuRecommendations().get(1).places()).isEmpty();
+        for (int i : List.of(0, 2, 3)) {
+            RecommendationResponse.MenuRecommendation card = resp.menuRecommendations().get(i);
+            assertThat(card.places()).extracting(RecommendationResponse.Place::name)
+                    .containsExactly(card.menuName() + " 음식 집"); // merged back in menu order
+        }
+        assertThat(order).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(order.get(0)).isEqualTo(1); // the failed lookup's card does not wait for the others
+    }
+
+    @Test
+    void recordsStageTimersAndFallbackCounters() {
+        MapProvider mapProvider = mock(MapProvider.class);
+        when(mapProvider.searchAsync(anyString(), anyDouble(), anyDouble(), anyInt()))
+                .thenReturn(Mono.error(new IllegalStateException("upstream 500")));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RecommendationService service = new RecommendationService(mapProvider, null, null, null, null, null, registry, false);
+
+        service.recommend(new RecommendationRequest("sunny", List.of("매콤"), 10000, 37.1, 126.9));
+
+        for (String stage : List.of("context", "llm", "filter", "lookup", "persist")) {
+            assertThat(registry.get("recommend.stage.duration").tag("stage", stage).timer().count()).isEqualTo(1);
+        }
+        // no LLM configured: the sampling stage is skipped
+        assertThat(registry.get("recommend.stage.duration").tag("stage", "sampling").timer().count()).isZero();
+        assertThat(registry.get("recommend.pipeline.duration").tag("tier", "NORMAL").timer().count()).isEqualTo(1);
+        assertThat(registry.get("recommend.fallback").tag("source", "rules").counter().count()).isEqualTo(1);
+        assertThat(registry.get("recommend.fallback").tag("source", "lookup").counter().count()).isEqualTo(4);
     }
 }
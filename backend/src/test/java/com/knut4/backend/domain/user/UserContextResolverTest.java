@@ -0,0 +1,73 @@
+package com.knut4.backend.domain.user;
+
+import com.knut4.backend.domain.preference.entity.Preference;
+import com.knut4.backend.domain.preference.repository.PreferenceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UserContextResolverTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PreferenceRepository preferenceRepository = mock(PreferenceRepository.class);
+    private final UserContextResolver resolver = new UserContextResolver(userRepository, preferenceRepository);
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static Authentication auth(String username) {
+        var principal = new org.springframework.security.core.userdetails.User(username, "pw", List.of());
+        return new UsernamePasswordAuthenticationToken(principal, null, List.of());
+    }
+
+    @Test
+    void resolvesUserAndPreferenceOncePerRequest() {
+        User user = new User();
+        user.setUsername("tester");
+        when(userRepository.findByUsername("tester")).thenReturn(Optional.of(user));
+        when(preferenceRepository.findByUser(user)).thenReturn(Optional.of(new Preference()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        UserContext first = resolver.resolve(auth("tester"));
+        UserContext second = resolver.resolve(auth("tester"));
+        first.preference();
+        second.preference();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.user()).contains(user);
+        verify(userRepository, times(1)).findByUsername("tester");
+        verify(preferenceRepository, times(1)).findByUser(user);
+    }
+
+    @Test
+    void preferenceIsNotQueriedUntilUsed() {
+        when(userRepository.findByUsername("tester")).thenReturn(Optional.of(new User()));
+
+        UserContext context = resolver.resolve(auth("tester"));
+
+        assertThat(context.authenticated()).isTrue();
+        verifyNoInteractions(preferenceRepository);
+    }
+
+    @Test
+    void anonymousWithoutPrincipal() {
+        UserContext context = resolver.resolve(null);
+
+        assertThat(context.username()).isNull();
+        assertThat(context.authenticated()).isFalse();
+        assertThat(context.preference()).isEmpty();
+        verifyNoInteractions(userRepository, preferenceRepository);
+    }
+}
@@ -0,0 +1,97 @@
+#!/usr/bin/env python3
+"""Fake OpenAI-compatible LLM server for load tests (docs/performance.md).
+
+Answers every chat completion after a fixed delay (default 800 ms), so a load test measures the backend rather
+than model inference. Supports what the backend uses: GET /v1/models (endpoint probe) and POST /v1/chat/completions,
+streamed ("stream": true, SSE deltas) or not. Prompts asking for JSON (structured generation) get a JSON array,
+others one "menu - reason" line per menu.
+
+    python3 loadtest/fake_llm.py --port 4891 --delay-ms 800
+    # backend: LLM_OPENAI_BASE_URL=http://<host>:4891/v1
+"""
+import argparse
+import json
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+MENUS = [
+    ("김치찌개", "얼큰한 국물로 든든하게"),
+    ("된장찌개", "구수하고 부담 없는 한 끼"),
+    ("제육볶음", "매콤달콤 밥도둑"),
+    ("칼국수", "따끈한 면 요리"),
+    ("비빔밥", "채소 가득 균형 잡힌 식사"),
+    ("돈까스", "바삭하고 든든한 메뉴"),
+]
+
+
+def content_for(messages):
+    prompt = "\n".join(str(m.get("content", "")) for m in messages or [])
+    if "JSON" in prompt:
+        return json.dumps([{"menu": m, "places": [], "reason": r} for m, r in MENUS], ensure_ascii=False)
+    return "\n".join(f"{m} - {r}" for m, r in MENUS) + "\n"
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+    delay = 0.8
+
+    def do_GET(self):
+        if self.path.rstrip("/").endswith("/models"):
+            self.send_json({"object": "list", "data": [{"id": "fake", "object": "model"}]})
+        else:
+            self.send_error(404)
+
+    def do_POST(self):
+        if not self.path.rstrip("/").endswith("/chat/completions"):
+            self.send_error(404)
+            return
+        length = int(self.headers.get("Content-Length") or 0)
+        body = json.loads(self.rfile.read(length) or b"{}")
+        time.sleep(self.delay)
+        content = content_for(body.get("messages"))
+        if body.get("stream"):
+            self.send_stream(content)
+        else:
+            self.send_json({"choices": [{"index": 0, "message": {"role": "assistant", "content": content},
+                                         "finish_reason": "stop"}]})
+
+    def send_json(self, obj):
+        data = json.dumps(obj, ensure_ascii=False).encode("utf-8")
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(data)))
+        self.end_headers()
+        self.wfile.write(data)
+
+    def send_stream(self, content):
+        events = [{"choices": [{"index": 0, "delta": {"content": line}}]} for line in content.splitlines(keepends=True)]
+        payload = "".join("data: " + json.dumps(e, ensure_ascii=False) + "\n\n" for e in events) + "data: [DONE]\n\n"
+        data = payload.encode("utf-8")
+        self.send_response(200)
+        self.send_header("Content-Type", "text/event-stream")
+        self.send_header("Content-Length", str(len(data)))
+        self.end_headers()
+        try:
+            self.wfile.write(data)
+        except (BrokenPipeError, ConnectionResetError):
+            pass  # the backend cancels a stream once it has parsed enough menus
+
+    def log_message(self, fmt, *args):
+        pass
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__.splitlines()[0])
+    parser.add_argument("--host", default="0.0.0.0")
+    parser.add_argument("--port", type=int, default=4891)
+    parser.add_argument("--delay-ms", type=int, default=800)
+    args = parser.parse_args()
+    Handler.delay = args.delay_ms / 1000
+    server = ThreadingHTTPServer((args.host, args.port), Handler)
+    server.daemon_threads = True
+    print(f"fake LLM on {args.host}:{args.port}, {args.delay_ms} ms per completion")
+    server.serve_forever()
+
+
+if __name__ == "__main__":
+    main()
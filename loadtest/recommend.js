@@ -0,0 +1,68 @@
+// k6 load script for the throughput-at-fixed-p99 comparison (docs/performance.md).
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e RATE=50 loadtest/recommend.js
+//
+// Open model: constant-arrival-rate keeps offering RATE req/s however slow the responses get. 60 s warm-up, then a
+// measured step of DURATION (default 3m); thresholds apply to the measured step only. Run once per rate step
+// (RATE=25, 50, 75, ...) and per thread mode; the highest RATE whose run passes all thresholds is the result.
+import http from 'k6/http';
+import { check, fail } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = Number(__ENV.RATE || 25);
+const DURATION = __ENV.DURATION || '3m';
+const USERNAME = __ENV.USERNAME || 'loadtest';
+const PASSWORD = __ENV.PASSWORD || 'loadtest-pass';
+
+// degraded answers (rule-engine / partial results) count as errors for this comparison
+const degraded = new Rate('degraded');
+
+const step = (duration, startTime, phase) => ({
+    executor: 'constant-arrival-rate',
+    rate: RATE,
+    timeUnit: '1s',
+    duration,
+    startTime,
+    preAllocatedVUs: Math.max(10, RATE * 2),
+    maxVUs: Math.max(100, RATE * 20),
+    tags: { phase },
+});
+
+export const options = {
+    scenarios: {
+        warmup: step('60s', '0s', 'warmup'),
+        measure: step(DURATION, '60s', 'measure'),
+    },
+    thresholds: {
+        'http_req_duration{phase:measure}': ['p(99)<2000'],
+        'http_req_failed{phase:measure}': ['rate<0.001'],
+        'degraded{phase:measure}': ['rate<0.001'],
+    },
+    summaryTrendStats: ['p(50)', 'p(99)', 'max'],
+};
+
+const BODY = JSON.stringify({
+    weather: '맑음',
+    moods: ['든든'],
+    budget: 12000,
+    latitude: 37.5665,
+    longitude: 126.9780,
+});
+
+export function setup() {
+    const json = { headers: { 'Content-Type': 'application/json' } };
+    // signup fails once the user exists; login decides
+    http.post(`${BASE_URL}/api/public/auth/signup`, JSON.stringify({ username: USERNAME, password: PASSWORD }), json);
+    const login = http.post(`${BASE_URL}/api/public/auth/login`, JSON.stringify({ username: USERNAME, password: PASSWORD }), json);
+    if (login.status !== 200) fail(`login failed: ${login.status} ${login.body}`);
+    return { token: login.json('accessToken') };
+}
+
+export default function (data) {
+    const res = http.post(`${BASE_URL}/api/private/recommendations`, BODY, {
+        headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${data.token}` },
+    });
+    const ok = check(res, { 'status 200': (r) => r.status === 200 });
+    degraded.add(!ok || res.json('degraded') === true);
+}